@@ -0,0 +1,135 @@
+package com.taskmanager.config;
+
+import com.taskmanager.security.PasswordWorkExecutor;
+import com.taskmanager.service.TaskDueScheduler;
+import com.taskmanager.service.TaskEventDispatcher;
+import com.taskmanager.service.TaskEventRelay;
+import com.taskmanager.service.TaskSubscriptionRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges and counters for Hibernate statistics and the WebSocket side (open sessions, task event
+ * broadcast queue) and the password hashing pool. HTTP timers (http.server.requests) come from Spring Boot auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory emf) {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            FunctionCounter.builder("hibernate.statements.prepared", stats, Statistics::getPrepareStatementCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.query.executions", stats, Statistics::getQueryExecutionCount)
+                    .register(registry);
+            Gauge.builder("hibernate.query.executions.max", stats, Statistics::getQueryExecutionMaxTime)
+                    .baseUnit("milliseconds")
+                    .description("Slowest query since startup")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.entities.loaded", stats, Statistics::getEntityLoadCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.entities.fetched", stats, Statistics::getEntityFetchCount)
+                    .description("Entities loaded lazily/secondarily - a rising rate hints at N+1 selects")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.collections.fetched", stats, Statistics::getCollectionFetchCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.transactions", stats, Statistics::getTransactionCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.l2.hits", stats, Statistics::getSecondLevelCacheHitCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.l2.misses", stats, Statistics::getSecondLevelCacheMissCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.l2.puts", stats, Statistics::getSecondLevelCachePutCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.query.hits", stats, Statistics::getQueryCacheHitCount)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.query.misses", stats, Statistics::getQueryCacheMissCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder websocketMetrics(TaskSubscriptionRegistry subscriptions) {
+        return registry -> {
+            Gauge.builder("websocket.sessions", subscriptions, TaskSubscriptionRegistry::connectedSessionCount)
+                    .description("Open STOMP sessions")
+                    .register(registry);
+            Gauge.builder("websocket.sessions.subscribed", subscriptions, TaskSubscriptionRegistry::subscribedSessionCount)
+                    .description("Sessions subscribed to /user/queue/tasks")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskEventMetrics(TaskEventDispatcher dispatcher) {
+        return registry -> {
+            Gauge.builder("task.events.queue.size", dispatcher, TaskEventDispatcher::getQueueSize)
+                    .register(registry);
+            Gauge.builder("task.events.queue.lag", dispatcher, TaskEventDispatcher::getQueueLagMs)
+                    .baseUnit("milliseconds")
+                    .description("Age of the oldest undelivered task event")
+                    .register(registry);
+            FunctionCounter.builder("task.events.published", dispatcher, TaskEventDispatcher::getPublishedCount)
+                    .register(registry);
+            FunctionCounter.builder("task.events.dropped", dispatcher, TaskEventDispatcher::getDroppedCount)
+                    .register(registry);
+            FunctionCounter.builder("task.events.coalesced", dispatcher, TaskEventDispatcher::getCoalescedCount)
+                    .register(registry);
+            FunctionCounter.builder("task.events.batches", dispatcher, TaskEventDispatcher::getBatchesSentCount)
+                    .register(registry);
+            FunctionCounter.builder("task.events.failures", dispatcher, TaskEventDispatcher::getSendFailureCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskRelayMetrics(TaskEventRelay relay) {
+        return registry -> {
+            Gauge.builder("task.relay.connected", relay, r -> r.isConnected() ? 1 : 0)
+                    .description("Whether the LISTEN connection for cross-node task events is up")
+                    .register(registry);
+            FunctionCounter.builder("task.relay.notifications.sent", relay, TaskEventRelay::getNotificationsSentCount)
+                    .register(registry);
+            FunctionCounter.builder("task.relay.notifications.received", relay, TaskEventRelay::getNotificationsReceivedCount)
+                    .register(registry);
+            FunctionCounter.builder("task.relay.events", relay, TaskEventRelay::getRemoteEventCount)
+                    .description("Task events from other instances delivered to local subscribers")
+                    .register(registry);
+            FunctionCounter.builder("task.relay.reconnects", relay, TaskEventRelay::getReconnectCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder dueReminderMetrics(TaskDueScheduler dueScheduler) {
+        return registry -> {
+            Gauge.builder("task.reminders.pending", dueScheduler, TaskDueScheduler::getPendingCount)
+                    .description("Open tasks due inside the reminder window")
+                    .register(registry);
+            FunctionCounter.builder("task.reminders.sent", dueScheduler, TaskDueScheduler::getRemindersSentCount)
+                    .tag("type", "due_soon")
+                    .register(registry);
+            FunctionCounter.builder("task.reminders.sent", dueScheduler, TaskDueScheduler::getOverdueSentCount)
+                    .tag("type", "overdue")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordWorkMetrics(PasswordWorkExecutor passwordWork) {
+        return registry -> {
+            Gauge.builder("auth.password.queue.size", passwordWork, PasswordWorkExecutor::getQueueSize)
+                    .register(registry);
+            Gauge.builder("auth.password.active", passwordWork, PasswordWorkExecutor::getActiveCount)
+                    .description("Password hashing threads currently busy")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write split, active when app.datasource.replica.url is set. Otherwise Boot's single
+ * spring.datasource pool is used as before.
+ *
+ * The application DataSource is a LazyConnectionDataSourceProxy: a connection is only fetched at the
+ * first statement, when the transaction's read-only flag is known. Read-only transactions
+ * (@Transactional(readOnly = true) services, and Spring Data repository reads outside a transaction)
+ * go to {@link ReplicaRoutingDataSource}, everything else to the primary pool.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    // same as Boot's auto-configured pool, which backs off once DataSource beans are defined here;
+    // schema migrations run on it directly
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // username/password default to the primary's; pool settings under app.datasource.replica.hikari.*
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primary,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:}") String username,
+                                              @Value("${app.datasource.replica.password:}") String password) {
+        HikariDataSource ds = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? primary.determineUsername() : username)
+                .password(password.isEmpty() ? primary.determinePassword() : password)
+                .build();
+        ds.setPoolName("replica");
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${app.datasource.replica.maxLagMs:2000}") long maxLagMs,
+                                               @Value("${app.datasource.replica.checkIntervalMs:1000}") long checkIntervalMs) {
+        return new ReplicaLagMonitor(replica, maxLagMs, checkIntervalMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, monitor));
+        return proxy;
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(
+            @Value("${app.datasource.replica.readYourWritesMs:5000}") long readYourWritesMs) {
+        return new ReadYourWritesInterceptor(readYourWritesMs);
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaLagMonitor monitor) {
+        return registry -> {
+            Gauge.builder("db.replica.lag", monitor, ReplicaLagMonitor::getLagMs)
+                    .baseUnit("milliseconds")
+                    .description("Replay lag of the read replica, -1 when unreachable")
+                    .register(registry);
+            Gauge.builder("db.replica.usable", monitor, m -> m.isUsable() ? 1 : 0)
+                    .register(registry);
+            FunctionCounter.builder("db.reads", monitor, ReplicaLagMonitor::getReplicaReadCount)
+                    .tag("target", "replica")
+                    .description("Read-only connections handed out")
+                    .register(registry);
+            FunctionCounter.builder("db.reads", monitor, ReplicaLagMonitor::getPrimaryReadCount)
+                    .tag("target", "primary")
+                    .description("Read-only connections handed out")
+                    .register(registry);
+            FunctionCounter.builder("db.replica.failovers", monitor, ReplicaLagMonitor::getFailoverCount)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.taskmanager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether the read replica may serve reads. Every checkIntervalMs it asks the replica how far
+ * its replay is behind; it is usable while that answers and the lag is within maxLagMs. A failed
+ * connection attempt by the router takes it out of use until the next good check.
+ * Starts out unusable, so reads go to the primary until the first check passes.
+ */
+public class ReplicaLagMonitor implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // 0 when fully replayed (an idle primary writes nothing, so the last replay timestamp alone would
+    // look ever more stale) and for a database that isn't a standby at all
+    static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+
+    private volatile boolean usable;
+    private volatile long lagMs = -1;
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+
+    private volatile ScheduledExecutorService timer;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs, long checkIntervalMs) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    void check() {
+        try (Connection c = replica.getConnection(); Statement st = c.createStatement()) {
+            st.setQueryTimeout(2);
+            try (ResultSet rs = st.executeQuery(LAG_SQL)) {
+                rs.next();
+                long lag = Math.round(rs.getDouble(1) * 1000);
+                lagMs = lag;
+                setUsable(lag <= maxLagMs, lag <= maxLagMs ? null : "lag " + lag + " ms");
+            }
+        } catch (SQLException e) {
+            lagMs = -1;
+            setUsable(false, e.getMessage());
+        }
+    }
+
+    /** Called when the router could not get a replica connection. */
+    void markDown(SQLException e) {
+        failovers.incrementAndGet();
+        setUsable(false, e.getMessage());
+    }
+
+    private void setUsable(boolean now, String reason) {
+        if (usable == now) return;
+        usable = now;
+        if (now) logger.info("Read replica back in use");
+        else logger.warn("Read replica out of use, reads go to the primary: {}", reason);
+    }
+
+    public boolean isUsable() { return usable; }
+    /** Last measured replay lag in ms, -1 when the replica could not be asked. */
+    public long getLagMs() { return lagMs; }
+    public long getReplicaReadCount() { return replicaReads.get(); }
+    public long getPrimaryReadCount() { return primaryReads.get(); }
+    public long getFailoverCount() { return failovers.get(); }
+
+    void countReplicaRead() { replicaReads.incrementAndGet(); }
+    void countPrimaryRead() { primaryReads.incrementAndGet(); }
+
+    @Override
+    public void start() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService t = timer;
+        timer = null;
+        if (t != null) t.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() { return timer != null; }
+}
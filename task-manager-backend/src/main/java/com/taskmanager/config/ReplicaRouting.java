@@ -0,0 +1,38 @@
+package com.taskmanager.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread opt-out from the read replica. Read-only transactions normally go to the replica when one
+ * is configured (see ReplicaDataSourceConfig); code that must see its own or very recent writes pins the
+ * thread to the primary. Without a replica this is a no-op.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {}
+
+    public static void pinToPrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY.get() != null;
+    }
+
+    /** Runs {@code work} with reads on the primary. Must be called before its transaction starts. */
+    public static <T> T onPrimary(Supplier<T> work) {
+        boolean wasPinned = isPinnedToPrimary();
+        pinToPrimary();
+        try {
+            return work.get();
+        } finally {
+            if (!wasPinned) clear();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.taskmanager.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Target for read-only connections: the replica while the lag monitor allows it and the thread isn't
+ * pinned to the primary (read-your-writes), otherwise - or when the replica can't be reached - the primary.
+ */
+class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(ds -> ds.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!ReplicaRouting.isPinnedToPrimary() && monitor.isUsable()) {
+            try {
+                Connection c = source.get(replica);
+                monitor.countReplicaRead();
+                return c;
+            } catch (SQLException e) {
+                monitor.markDown(e);
+            }
+        }
+        monitor.countPrimaryRead();
+        return source.get(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource ds) throws SQLException;
+    }
+}
@@ -0,0 +1,48 @@
+package com.taskmanager.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each API request issued (hibernate.queries.per.request),
+ * so N+1 regressions show up as a shifted histogram rather than only as latency.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final DistributionSummary queriesPerRequest;
+
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.queriesPerRequest = DistributionSummary.builder("hibernate.queries.per.request")
+                .description("SQL statements issued while serving one HTTP request")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queriesPerRequest.record(QueryCountInspector.current());
+        }
+    }
+}
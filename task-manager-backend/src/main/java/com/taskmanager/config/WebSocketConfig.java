@@ -1,19 +1,85 @@
 package com.taskmanager.config;
 
+import com.taskmanager.security.JwtPrincipalResolver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.socket.config.annotation.*;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final JwtPrincipalResolver principalResolver;
+    private final boolean virtualThreads;
+    private final int virtualThreadConcurrency;
+
+    public WebSocketConfig(JwtPrincipalResolver principalResolver,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${app.websocket.virtualThreadConcurrency:1000}") int virtualThreadConcurrency) {
+        this.principalResolver = principalResolver;
+        this.virtualThreads = virtualThreads;
+        this.virtualThreadConcurrency = virtualThreadConcurrency;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        // clients subscribe to /user/queue/tasks and only get changes that concern them
+        config.setUserDestinationPrefix("/user");
     }
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.executor(virtualThreadExecutor("ws-out-"));
+    }
+
+    // STOMP CONNECT carries "Authorization: Bearer <jwt>" as a native header; bind the principal to the session
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.executor(virtualThreadExecutor("ws-in-"));
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+                    String header = accessor.getFirstNativeHeader("Authorization");
+                    if (header != null && header.startsWith("Bearer ")) {
+                        try {
+                            UserDetails user = principalResolver.resolve(header.substring(7));
+                            if (user != null) {
+                                accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+                            }
+                        } catch (Exception ignore) {
+                            // anonymous session: can still use /topic, never receives user-queue messages
+                        }
+                    }
+                }
+                return message;
+            }
+        });
+    }
+
+    // One virtual thread per message, capped so a flood of frames can't spawn unbounded work
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String prefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(virtualThreadConcurrency);
+        return executor;
+    }
 }
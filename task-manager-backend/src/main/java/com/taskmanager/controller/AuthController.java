@@ -3,7 +3,11 @@ package com.taskmanager.controller;
 import com.taskmanager.dto.JwtResponse;
 import com.taskmanager.dto.LoginRequest;
 import com.taskmanager.dto.SignupRequest;
+import com.taskmanager.security.PasswordWorkExecutor;
+import com.taskmanager.security.PasswordWorkRejectedException;
 import com.taskmanager.service.AuthService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import com.taskmanager.dto.ForgotPasswordRequest;
 
@@ -13,14 +17,18 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.taskmanager.model.User;
 import com.taskmanager.repo.UserRepository;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     private final AuthService authService;
     private final UserRepository userRepository;
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    private final PasswordWorkExecutor passwordWork;
+    public AuthController(AuthService authService, UserRepository userRepository, PasswordWorkExecutor passwordWork) {
         this.authService = authService;
         this.userRepository = userRepository;
+        this.passwordWork = passwordWork;
     }
 
     // Get current user info from JWT
@@ -32,27 +40,41 @@ public class AuthController {
         return ResponseEntity.ok(user);
     }
 
+    // BCrypt endpoints run on the password pool; the servlet thread is released while they wait
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        JwtResponse resp = authService.authenticateUser(request);
-        return ResponseEntity.ok(resp);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
+        return passwordWork.submit("login", () -> {
+            JwtResponse resp = authService.authenticateUser(request);
+            return ResponseEntity.ok(resp);
+        });
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody SignupRequest request) {
-        String res = authService.registerUser(request);
-        if (res.startsWith("Error")) return ResponseEntity.badRequest().body(res);
-        return ResponseEntity.ok(res);
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody SignupRequest request) {
+        return passwordWork.submit("register", () -> {
+            String res = authService.registerUser(request);
+            if (res.startsWith("Error")) return ResponseEntity.badRequest().body(res);
+            return ResponseEntity.ok(res);
+        });
     }
     
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestBody ForgotPasswordRequest request) {
-        try {
-            String response = authService.resetPassword(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> forgotPassword(@RequestBody ForgotPasswordRequest request) {
+        return passwordWork.submit("reset", () -> {
+            try {
+                String response = authService.resetPassword(request);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            }
+        });
+    }
+
+    @ExceptionHandler(PasswordWorkRejectedException.class)
+    public ResponseEntity<?> busy(PasswordWorkRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
     }
 
     
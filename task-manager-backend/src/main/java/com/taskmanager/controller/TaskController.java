@@ -1,52 +1,185 @@
 package com.taskmanager.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.dto.TaskDto;
+import com.taskmanager.dto.TaskFilter;
+import com.taskmanager.dto.TaskView;
 import com.taskmanager.model.Task;
-import com.taskmanager.model.User;
-import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.AuthUser;
+import com.taskmanager.service.ListingVersions;
+import com.taskmanager.service.StaleTaskVersionException;
+import com.taskmanager.service.TaskExportService;
+import com.taskmanager.service.TaskFileFormat;
+import com.taskmanager.service.TaskImportService;
 import com.taskmanager.service.TaskService;
+import com.taskmanager.service.TaskStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
+    private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
+
     private final TaskService taskService;
-    private final UserRepository userRepository;
+    private final TaskStatsService taskStats;
+    private final ListingVersions versions;
+    private final TaskExportService taskExport;
+    private final TaskImportService taskImport;
+    private final ObjectMapper objectMapper;
 
-    public TaskController(TaskService taskService, UserRepository userRepository) {
+    public TaskController(TaskService taskService, TaskStatsService taskStats, ListingVersions versions,
+                          TaskExportService taskExport, TaskImportService taskImport, ObjectMapper objectMapper) {
         this.taskService = taskService;
-        this.userRepository = userRepository;
+        this.taskStats = taskStats;
+        this.versions = versions;
+        this.taskExport = taskExport;
+        this.taskImport = taskImport;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * List tasks visible to the caller.
+     * - optional filters: ?status=&priority=&dueFrom=&dueTo= (ISO dates), admins may also pass ?userId=
+     * - without paging params: full list (legacy behaviour)
+     * - with ?limit= and/or ?cursor=: one keyset page, follow nextCursor for the next one
+     * - conditional: If-None-Match / If-Modified-Since answered with 304 before any query runs
+     */
     @GetMapping
-    public ResponseEntity<List<Task>> list(Authentication auth) {
-        User u = null;
-        if (auth != null && auth.getName() != null) {
-            u = userRepository.findByEmail(auth.getName()).orElse(null);
+    public ResponseEntity<?> list(@RequestParam(required = false) String status,
+                                  @RequestParam(required = false) String priority,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+                                  @RequestParam(required = false) Long userId,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestParam(required = false) String cursor,
+                                  @AuthenticationPrincipal AuthUser u,
+                                  WebRequest request,
+                                  HttpServletResponse response) {
+        if (u == null) {
+            return ResponseEntity.status(401).build();
         }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ListingVersions.CACHE_CONTROL);
+        String etag = versions.etag(ListingVersions.scope("tasks", u.getId(), request.getParameterMap()));
+        if (request.checkNotModified(etag, versions.lastModified())) return null;
+        boolean isAdmin = u.isAdmin();
 
-        boolean isAdmin = u != null && u.getRoles().stream()
-                .anyMatch(r -> "ROLE_ADMIN".equals(r.getName()) || "ROLE_SUPERADMIN".equals(r.getName()));
+        TaskFilter filter = new TaskFilter();
+        // Non-admins only ever see their own tasks, whatever userId they pass
+        filter.setUserId(isAdmin ? userId : u.getId());
+        filter.setStatus(status);
+        filter.setPriority(priority);
+        filter.setDueFrom(dueFrom);
+        filter.setDueTo(dueTo);
 
-        if (isAdmin) {
-            return ResponseEntity.ok(taskService.listAll());
-        } else if (u != null) {
-            // Only show user's own tasks
-            return ResponseEntity.ok(taskService.listByUserId(u.getId()));
-        } else {
-            return ResponseEntity.status(401).build();
+        if (limit != null || cursor != null) {
+            try {
+                return ResponseEntity.ok(versions.read(() -> taskService.listPage(filter, cursor, limit)));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
+        return ResponseEntity.ok(versions.read(() -> taskService.listFiltered(filter)));
     }
 
+    /**
+     * Export of every task visible to the caller (filters as in {@link #list}) as ?format=ndjson (default)
+     * or csv. Streamed from a database cursor, so memory use doesn't grow with the number of rows.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(required = false) String status,
+                                                        @RequestParam(required = false) String priority,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+                                                        @RequestParam(required = false) Long userId,
+                                                        @AuthenticationPrincipal AuthUser u) {
+        if (u == null) return ResponseEntity.status(401).build();
+        TaskFileFormat fmt = TaskFileFormat.parse(format);
+        if (fmt == null) return ResponseEntity.badRequest().build();
+        TaskFilter filter = new TaskFilter();
+        filter.setUserId(u.isAdmin() ? userId : u.getId());
+        filter.setStatus(status);
+        filter.setPriority(priority);
+        filter.setDueFrom(dueFrom);
+        filter.setDueTo(dueTo);
+
+        StreamingResponseBody body = out -> taskExport.export(filter, fmt, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fmt.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + fmt.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Full-text search over title and description: ?q= (every word prefix-matched), best match first.
+     * Same visibility as {@link #list}. Paged with ?limit= and ?cursor= (follow nextCursor).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) Long userId,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String cursor,
+                                    @AuthenticationPrincipal AuthUser u) {
+        if (u == null) return ResponseEntity.status(401).build();
+        try {
+            return ResponseEntity.ok(taskService.search(q, u.isAdmin() ? userId : u.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Delta sync: tasks changed and ids deleted after ?since= (ISO-8601 instant, e.g. the watermark of the
+     * previous call). Same visibility as {@link #list}. Keep calling while more=true; resync=true means
+     * the watermark is too old and the full list has to be fetched.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                                     @RequestParam(required = false) Long userId,
+                                     @RequestParam(required = false) Integer limit,
+                                     @AuthenticationPrincipal AuthUser u) {
+        if (u == null) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(taskService.changesSince(since, u.isAdmin() ? userId : u.getId(), limit));
+    }
+
+    /**
+     * Dashboard counts from in-memory counters (no task rows are read).
+     * Admins get global numbers, or one user's with ?userId=; everyone else gets their own tasks'.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(@RequestParam(required = false) Long userId,
+                                   @AuthenticationPrincipal AuthUser u) {
+        if (u == null) return ResponseEntity.status(401).build();
+        if (!u.isAdmin()) return ResponseEntity.ok(taskStats.forUser(u.getId()));
+        return ResponseEntity.ok(userId == null ? taskStats.global() : taskStats.forUser(userId));
+    }
+
+    // ETag is the task's version; send it back in If-Match on PUT / PATCH status to avoid lost updates
     @GetMapping("/{id}")
     public ResponseEntity<?> get(@PathVariable Long id) {
-        return taskService.findById(id)
-                .map(ResponseEntity::ok)
+        return taskService.findViewById(id)
+                .<ResponseEntity<?>>map(v -> ResponseEntity.ok().eTag(etag(v.version())).body(v))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -56,16 +189,9 @@ public class TaskController {
      * - USER: can only create tasks for themselves (creator set to current user, assignee default to them)
      */
     @PostMapping
-    public ResponseEntity<Task> create(@RequestBody TaskDto dto, Authentication auth) {
-        Long creatorId = null;
-        User current = null;
-        if (auth != null && auth.getName() != null) {
-            current = userRepository.findByEmail(auth.getName()).orElse(null);
-            if (current != null) creatorId = current.getId();
-        }
-
-        boolean isAdmin = current != null && current.getRoles().stream()
-                .anyMatch(r -> "ROLE_ADMIN".equals(r.getName()) || "ROLE_SUPERADMIN".equals(r.getName()));
+    public ResponseEntity<TaskView> create(@RequestBody TaskDto dto, @AuthenticationPrincipal AuthUser current) {
+        Long creatorId = current != null ? current.getId() : null;
+        boolean isAdmin = current != null && current.isAdmin();
 
         if (isAdmin) {
             // Admin may override creatorId from DTO if provided
@@ -77,52 +203,147 @@ public class TaskController {
         }
 
         // Log incoming DTO for debugging assignment issues
-        try {
-            System.out.println("[TaskController] create() - incoming DTO: title=" + dto.getTitle()
-                    + ", assigneeId=" + dto.getAssigneeId() + ", creatorId(dto)=" + dto.getCreatorId()
-                    + ", creatorId(resolved)=" + creatorId);
-        } catch (Exception ignore) {}
+        logger.debug("[TaskController] create() - incoming DTO: title={}, assigneeId={}, creatorId(dto)={}, creatorId(resolved)={}",
+                dto.getTitle(), dto.getAssigneeId(), dto.getCreatorId(), creatorId);
 
         // If a normal user didn't set assignee, it will be defaulted in service (createTask)
         Task t = taskService.createTask(dto, creatorId);
-        return ResponseEntity.ok(t);
+        return ResponseEntity.ok(TaskView.of(t));
     }
 
     // Admin and super admin can update any task
     @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    // With If-Match the update only applies at that version: 412 if the task changed since
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody TaskDto dto) {
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody TaskDto dto,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Task t = taskService.updateTask(id, dto);
-            return ResponseEntity.ok(t);
+            Task t = taskService.updateTask(id, dto, ifMatchVersion(ifMatch));
+            return ResponseEntity.ok().eTag(etag(t.getVersion())).body(TaskView.of(t));
+        } catch (StaleTaskVersionException e) {
+            return preconditionFailed(e.getCurrentVersion());
+        } catch (OptimisticLockingFailureException e) {
+            return conflict();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    // User can update status of their own assigned or created tasks
+    // User can update status of their own assigned or created tasks (one guarded UPDATE, honours If-Match)
     @PreAuthorize("hasRole('USER')")
     @PatchMapping("/{id}/status")
-    public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestBody TaskDto dto, Authentication auth) {
-        User u = null;
-        if (auth != null && auth.getName() != null) {
-            u = userRepository.findByEmail(auth.getName()).orElse(null);
-        }
+    public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestBody TaskDto dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @AuthenticationPrincipal AuthUser u) {
         if (u == null) return ResponseEntity.status(401).build();
+        if (dto.getStatus() == null) return ResponseEntity.badRequest().body("Status required");
 
-        Task task = taskService.findById(id).orElse(null);
+        Optional<TaskView> updated = taskService.updateStatus(id, dto.getStatus(), u.getId(), ifMatchVersion(ifMatch));
+        if (updated.isPresent()) {
+            return ResponseEntity.ok().eTag(etag(updated.get().version())).body(updated.get());
+        }
+        // nothing updated: only now find out why
+        TaskView task = taskService.findViewById(id).orElse(null);
         if (task == null) return ResponseEntity.notFound().build();
-
-        boolean isOwner = (task.getAssignee() != null && task.getAssignee().getId().equals(u.getId())) ||
-                          (task.getCreator() != null && task.getCreator().getId().equals(u.getId()));
+        boolean isOwner = u.getId().equals(task.assigneeId()) || u.getId().equals(task.creatorId());
         if (!isOwner) return ResponseEntity.status(403).body("Not allowed");
+        return preconditionFailed(task.version());
+    }
+
+    /**
+     * Batch create, same rules as {@link #create}. Users are resolved with one query and rows are
+     * inserted in JDBC batches; subscribers get one aggregated event.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<TaskDto> dtos, @AuthenticationPrincipal AuthUser current) {
+        if (current == null) return ResponseEntity.status(401).build();
+        if (dtos.size() > TaskService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("At most " + TaskService.MAX_BATCH_SIZE + " tasks per batch");
+        }
+        List<Task> created = taskService.createTasks(dtos, current.getId(), current.isAdmin());
+        return ResponseEntity.ok(created.stream().map(TaskView::of).toList());
+    }
 
-        if (dto.getStatus() != null) {
-            task.setStatus(dto.getStatus());
-            taskService.save(task);
-            return ResponseEntity.ok(task);
+    /**
+     * Bulk import from the request body, ?format=ndjson (default) or csv with a header line.
+     * Users are referenced by assigneeEmail/creatorEmail (creator defaults to the caller). The response
+     * is NDJSON: one progress line per committed batch, then a final line with done=true and row errors.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    @PostMapping("/import")
+    public void importTasks(@RequestParam(defaultValue = "ndjson") String format,
+                            @AuthenticationPrincipal AuthUser u,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        TaskFileFormat fmt = TaskFileFormat.parse(format);
+        if (fmt == null) {
+            response.sendError(400, "Unknown format");
+            return;
+        }
+        response.setContentType(TaskFileFormat.NDJSON.getContentType());
+        OutputStream out = response.getOutputStream();
+        taskImport.importTasks(request.getInputStream(), fmt, u.getId(), p -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(p));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                // client stopped listening; the import itself carries on
+                logger.debug("Could not write import progress", e);
+            }
+        });
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateBatch(@RequestBody List<TaskDto> dtos) {
+        if (dtos.size() > TaskService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("At most " + TaskService.MAX_BATCH_SIZE + " tasks per batch");
+        }
+        return ResponseEntity.ok(taskService.updateTasks(dtos));
+    }
+
+    // Each item needs id + status; items the caller doesn't own come back in skippedIds
+    @PreAuthorize("hasRole('USER')")
+    @PatchMapping("/batch/status")
+    public ResponseEntity<?> updateStatusBatch(@RequestBody List<TaskDto> dtos, @AuthenticationPrincipal AuthUser u) {
+        if (u == null) return ResponseEntity.status(401).build();
+        if (dtos.size() > TaskService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body("At most " + TaskService.MAX_BATCH_SIZE + " tasks per batch");
+        }
+        return ResponseEntity.ok(taskService.updateStatuses(dtos, u.getId(), u.isAdmin()));
+    }
+
+    // A concurrent update committed first (version check at flush), e.g. in a batch: the client retries
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> onOptimisticLockFailure(OptimisticLockingFailureException e) {
+        return conflict();
+    }
+
+    private static ResponseEntity<?> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Task was modified concurrently, reload and retry");
+    }
+
+    private static ResponseEntity<?> preconditionFailed(long currentVersion) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(etag(currentVersion))
+                .body("Task was modified, reload and retry");
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** Version from an If-Match header ("3" or W/"3"); null when absent or *, -1 (never matches) when unparsable. */
+    private static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+        String v = ifMatch.trim();
+        if (v.startsWith("W/")) v = v.substring(2);
+        v = v.replace("\"", "");
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            return -1L;
         }
-        return ResponseEntity.badRequest().body("Status required");
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
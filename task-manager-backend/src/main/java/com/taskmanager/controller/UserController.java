@@ -1,21 +1,32 @@
 package com.taskmanager.controller;
 
+import com.taskmanager.config.ReplicaRouting;
 import com.taskmanager.model.Role;
 import com.taskmanager.model.User;
 import com.taskmanager.repo.RoleRepository;
 import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.TaskSpecifications;
 import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.AuthUser;
+import com.taskmanager.security.PrincipalCache;
+import com.taskmanager.service.ListingVersions;
+import com.taskmanager.service.TaskEventRelay;
+import com.taskmanager.service.UserReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import com.taskmanager.dto.UserWithTasksDto;
+import java.util.Optional;
 
 
 @RestController
@@ -34,6 +45,18 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserReportService userReportService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ListingVersions versions;
+
+    @Autowired
+    private TaskEventRelay relay;
+
     // ✅ Create User (SUPER_ADMIN only)
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     @PostMapping
@@ -46,50 +69,64 @@ public class UserController {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setRoles(Collections.singleton(r));
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
+        versions.usersChanged();
+        relay.userChanged(user.getId(), user.getEmail());
         return ResponseEntity.ok(user);
     }
 
     // ✅ List Users (ADMIN + SUPER_ADMIN)
     @PreAuthorize("hasAnyRole('ADMIN','SUPER_ADMIN')")
     @GetMapping
-    public List<User> listUsers() {
-        return userRepository.findAll();
+    public List<User> listUsers(WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ListingVersions.CACHE_CONTROL);
+        // null with 304 already set when the client's copy is current
+        if (request.checkNotModified(versions.etag("users"), versions.lastModified())) return null;
+        return versions.read(userRepository::findAll);
     }
 
     // ✅ Get all users with their tasks (ADMIN + SUPER_ADMIN)
     @PreAuthorize("hasAnyRole('ADMIN','SUPER_ADMIN')")
     @GetMapping("/with-tasks")
-    public ResponseEntity<?> getAllUsersWithTasks() {
-        List<User> users = userRepository.findAll();
-        List<UserWithTasksDto> result = users.stream().map(u ->
-            new UserWithTasksDto(
-                u.getId(),
-                u.getFullName(),
-                u.getEmail(),
-                u.getRoles(),
-                taskRepository.findByAssigneeId(u.getId()),
-                taskRepository.findByCreatorId(u.getId())
-            )
-        ).toList();
-        return ResponseEntity.ok(result);
+    public ResponseEntity<StreamingResponseBody> getAllUsersWithTasks(WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ListingVersions.CACHE_CONTROL);
+        if (request.checkNotModified(versions.etag("users-with-tasks"), versions.lastModified())) return null;
+        // Streamed: same JSON as List<UserWithTasksDto>, built from 3 queries instead of 2N+1
+        // written on another thread: carry the primary/replica decision over
+        boolean fromPrimary = versions.changedRecently();
+        StreamingResponseBody body = out -> {
+            if (fromPrimary) ReplicaRouting.pinToPrimary();
+            try {
+                userReportService.writeUsersWithTasks(out);
+            } finally {
+                if (fromPrimary) ReplicaRouting.clear();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // ✅ Get one user’s tasks (ADMIN, SUPER_ADMIN, or the user themselves)
     @PreAuthorize("hasAnyRole('ADMIN','SUPER_ADMIN') or #id == principal.id")
     @GetMapping("/{id}/tasks")
     public ResponseEntity<?> getUserTasks(@PathVariable Long id) {
-        return ResponseEntity.ok(taskRepository.findByAssigneeId(id));
+        return ResponseEntity.ok(taskRepository.findViews(TaskSpecifications.assignedTo(id), 0));
     }
 
     // ✅ Delete user (SUPER_ADMIN only, but not self)
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id, Authentication auth) {
-        User current = userRepository.findByEmail(auth.getName()).orElse(null);
+    public ResponseEntity<?> deleteUser(@PathVariable Long id, @AuthenticationPrincipal AuthUser current) {
         if (current != null && current.getId().equals(id)) {
             return ResponseEntity.badRequest().body("Super admin cannot delete themselves");
         }
+        Optional<User> user = userRepository.findById(id);
         userRepository.deleteById(id);
+        // after the delete has committed, so nothing reloads and re-caches the old row
+        user.ifPresent(u -> {
+            principalCache.evict(u.getEmail());
+            relay.userChanged(u.getId(), u.getEmail());
+        });
+        versions.usersChanged();
         return ResponseEntity.noContent().build();
     }
 }
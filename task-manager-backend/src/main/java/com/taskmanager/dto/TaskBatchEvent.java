@@ -0,0 +1,16 @@
+package com.taskmanager.dto;
+
+import java.util.List;
+
+/**
+ * All task changes of one batch request. Enqueued and delivered as a single unit by the dispatcher.
+ */
+public class TaskBatchEvent {
+    private final List<TaskEvent> events;
+
+    public TaskBatchEvent(List<TaskEvent> events) {
+        this.events = events;
+    }
+
+    public List<TaskEvent> getEvents() { return events; }
+}
@@ -0,0 +1,20 @@
+package com.taskmanager.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch update: the tasks that were changed, and the ids that were skipped
+ * because they don't exist or the caller may not change them.
+ */
+public class TaskBatchResult {
+    private List<TaskView> tasks;
+    private List<Long> skippedIds;
+
+    public TaskBatchResult(List<TaskView> tasks, List<Long> skippedIds) {
+        this.tasks = tasks;
+        this.skippedIds = skippedIds;
+    }
+
+    public List<TaskView> getTasks() { return tasks; }
+    public List<Long> getSkippedIds() { return skippedIds; }
+}
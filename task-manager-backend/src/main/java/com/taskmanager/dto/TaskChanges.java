@@ -0,0 +1,35 @@
+package com.taskmanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Result of a delta sync. Clients store {@code watermark} and send it back as {@code ?since=};
+ * while {@code more} is true they should ask again right away. {@code resync} means the watermark
+ * is older than the retained delete history and the full list has to be reloaded instead.
+ */
+public class TaskChanges {
+    private List<TaskView> updated;
+    private List<Long> deleted;
+    private Instant watermark;
+    private boolean more;
+    private boolean resync;
+
+    public TaskChanges(List<TaskView> updated, List<Long> deleted, Instant watermark, boolean more, boolean resync) {
+        this.updated = updated;
+        this.deleted = deleted;
+        this.watermark = watermark;
+        this.more = more;
+        this.resync = resync;
+    }
+
+    public static TaskChanges resyncRequired() {
+        return new TaskChanges(List.of(), List.of(), null, false, true);
+    }
+
+    public List<TaskView> getUpdated() { return updated; }
+    public List<Long> getDeleted() { return deleted; }
+    public Instant getWatermark() { return watermark; }
+    public boolean isMore() { return more; }
+    public boolean isResync() { return resync; }
+}
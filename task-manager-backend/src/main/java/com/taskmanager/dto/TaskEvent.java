@@ -0,0 +1,85 @@
+package com.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.taskmanager.model.Task;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A task change as delivered on /user/queue/tasks. {@code task} is null for DELETED.
+ * Assignee and creator ids are kept (but not serialized) so the dispatcher can route deletes too, as are
+ * the users who were assignee or creator before the change, so a reassigned task also reaches its former assignee.
+ */
+public class TaskEvent {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long taskId;
+    private final TaskView task;
+    private final Long assigneeId;
+    private final Long creatorId;
+    private final List<Long> previousOwnerIds;
+
+    public TaskEvent(Type type, Long taskId, TaskView task, Long assigneeId, Long creatorId) {
+        this(type, taskId, task, assigneeId, creatorId, List.of());
+    }
+
+    /** @param previousOwnerIds former assignee / creator ids; those still assignee or creator are dropped */
+    public TaskEvent(Type type, Long taskId, TaskView task, Long assigneeId, Long creatorId,
+                     Iterable<Long> previousOwnerIds) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+        this.assigneeId = assigneeId;
+        this.creatorId = creatorId;
+        Set<Long> previous = new LinkedHashSet<>();
+        for (Long id : previousOwnerIds) {
+            if (id != null && !id.equals(assigneeId) && !id.equals(creatorId)) previous.add(id);
+        }
+        this.previousOwnerIds = List.copyOf(previous);
+    }
+
+    public static TaskEvent created(Task t) { return of(Type.CREATED, t); }
+    public static TaskEvent updated(Task t) { return of(Type.UPDATED, t); }
+
+    /** @param before the task's state before the change, null if unknown */
+    public static TaskEvent updated(Task t, TaskStatsRow before) {
+        TaskView v = TaskView.of(t);
+        return new TaskEvent(Type.UPDATED, t.getId(), v, v.assigneeId(), v.creatorId(),
+                before == null ? List.of() : Arrays.asList(before.assigneeId(), before.creatorId()));
+    }
+
+    public static TaskEvent deleted(Task t) {
+        TaskView v = TaskView.of(t);
+        return new TaskEvent(Type.DELETED, t.getId(), null, v.assigneeId(), v.creatorId());
+    }
+
+    private static TaskEvent of(Type type, Task t) {
+        TaskView v = TaskView.of(t);
+        return new TaskEvent(type, t.getId(), v, v.assigneeId(), v.creatorId());
+    }
+
+    public Type getType() { return type; }
+    public Long getTaskId() { return taskId; }
+    public TaskView getTask() { return task; }
+    @JsonIgnore public Long getAssigneeId() { return assigneeId; }
+    @JsonIgnore public Long getCreatorId() { return creatorId; }
+    @JsonIgnore public List<Long> getPreviousOwnerIds() { return previousOwnerIds; }
+
+    /**
+     * Combines an older pending event with this newer one for the same task.
+     * Latest state wins; a task created and then updated inside one batch is still reported as CREATED.
+     * Everyone who was assignee or creator along the way is kept as a previous owner.
+     */
+    public TaskEvent mergeAfter(TaskEvent older) {
+        Type merged = older.type == Type.CREATED && type == Type.UPDATED ? Type.CREATED : type;
+        Set<Long> previous = new LinkedHashSet<>(older.previousOwnerIds);
+        previous.add(older.assigneeId);
+        previous.add(older.creatorId);
+        previous.addAll(previousOwnerIds);
+        return new TaskEvent(merged, taskId, task, assigneeId, creatorId, previous);
+    }
+}
@@ -0,0 +1,32 @@
+package com.taskmanager.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Optional criteria for task listings. Null fields are not applied.
+ * userId matches tasks where the user is assignee OR creator.
+ */
+public class TaskFilter {
+    private Long userId;
+    private String status;
+    private String priority;
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+    public LocalDate getDueFrom() { return dueFrom; }
+    public void setDueFrom(LocalDate dueFrom) { this.dueFrom = dueFrom; }
+    public LocalDate getDueTo() { return dueTo; }
+    public void setDueTo(LocalDate dueTo) { this.dueTo = dueTo; }
+
+    public static TaskFilter forUser(Long userId) {
+        TaskFilter f = new TaskFilter();
+        f.setUserId(userId);
+        return f;
+    }
+}
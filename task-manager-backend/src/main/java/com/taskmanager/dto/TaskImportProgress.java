@@ -0,0 +1,36 @@
+package com.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Progress line of a running import, written after every committed batch; the last one has done=true.
+ * {@code error} is set if the file couldn't be read to the end (rows committed before that stay imported).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskImportProgress {
+    private long rows;
+    private long imported;
+    private long failed;
+    private boolean done;
+    private List<String> rowErrors;
+    private String error;
+
+    public TaskImportProgress(long rows, long imported, long failed, boolean done,
+                              List<String> rowErrors, String error) {
+        this.rows = rows;
+        this.imported = imported;
+        this.failed = failed;
+        this.done = done;
+        this.rowErrors = rowErrors;
+        this.error = error;
+    }
+
+    public long getRows() { return rows; }
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public boolean isDone() { return done; }
+    public List<String> getRowErrors() { return rowErrors; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,42 @@
+package com.taskmanager.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+
+/**
+ * One task in an import file (NDJSON object or CSV row with a header line). Users are referenced
+ * by email; assigneeId/creatorId are accepted too, so a file from /api/tasks/export can be loaded back.
+ * Other columns (id, names, timestamps) are ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskImportRow {
+    private String title;
+    private String description;
+    private String status;
+    private String priority;
+    private LocalDate dueDate;
+    private String assigneeEmail;
+    private String creatorEmail;
+    private Long assigneeId;
+    private Long creatorId;
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    public String getAssigneeEmail() { return assigneeEmail; }
+    public void setAssigneeEmail(String assigneeEmail) { this.assigneeEmail = assigneeEmail; }
+    public String getCreatorEmail() { return creatorEmail; }
+    public void setCreatorEmail(String creatorEmail) { this.creatorEmail = creatorEmail; }
+    public Long getAssigneeId() { return assigneeId; }
+    public void setAssigneeId(Long assigneeId) { this.assigneeId = assigneeId; }
+    public Long getCreatorId() { return creatorId; }
+    public void setCreatorId(Long creatorId) { this.creatorId = creatorId; }
+}
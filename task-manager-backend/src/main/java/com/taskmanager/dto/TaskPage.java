@@ -0,0 +1,19 @@
+package com.taskmanager.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated task listing. {@code nextCursor} is null on the last page.
+ */
+public class TaskPage {
+    private List<TaskView> items;
+    private String nextCursor;
+
+    public TaskPage(List<TaskView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TaskView> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,11 @@
+package com.taskmanager.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A due-date notification for the assignee, delivered on /user/queue/reminders.
+ * DUE_SOON is sent app.dueReminders.leadDays before the due date, OVERDUE the day after it.
+ */
+public record TaskReminder(Type type, Long taskId, String title, LocalDate dueDate) {
+    public enum Type { DUE_SOON, OVERDUE }
+}
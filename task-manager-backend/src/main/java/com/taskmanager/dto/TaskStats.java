@@ -0,0 +1,37 @@
+package com.taskmanager.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Task counts for the dashboard. A task is overdue when its due date is before {@code asOf}
+ * and its status is not DONE.
+ */
+public class TaskStats {
+    private long total;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byPriority;
+    private Map<Long, Long> byAssignee;
+    private long unassigned;
+    private long overdue;
+    private LocalDate asOf;
+
+    public TaskStats(long total, Map<String, Long> byStatus, Map<String, Long> byPriority,
+                     Map<Long, Long> byAssignee, long unassigned, long overdue, LocalDate asOf) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.byPriority = byPriority;
+        this.byAssignee = byAssignee;
+        this.unassigned = unassigned;
+        this.overdue = overdue;
+        this.asOf = asOf;
+    }
+
+    public long getTotal() { return total; }
+    public Map<String, Long> getByStatus() { return byStatus; }
+    public Map<String, Long> getByPriority() { return byPriority; }
+    public Map<Long, Long> getByAssignee() { return byAssignee; }
+    public long getUnassigned() { return unassigned; }
+    public long getOverdue() { return overdue; }
+    public LocalDate getAsOf() { return asOf; }
+}
@@ -0,0 +1,24 @@
+package com.taskmanager.dto;
+
+import com.taskmanager.model.Task;
+
+import java.time.LocalDate;
+
+/**
+ * The fields task statistics are counted by, with the number of tasks sharing them:
+ * a row of the startup aggregate query, or a single task's contribution (count 1).
+ */
+public record TaskStatsRow(String status,
+                           String priority,
+                           Long assigneeId,
+                           Long creatorId,
+                           LocalDate dueDate,
+                           Long count) {
+
+    public static TaskStatsRow of(Task t) {
+        return new TaskStatsRow(t.getStatus(), t.getPriority(),
+                t.getAssignee() == null ? null : t.getAssignee().getId(),
+                t.getCreator() == null ? null : t.getCreator().getId(),
+                t.getDueDate(), 1L);
+    }
+}
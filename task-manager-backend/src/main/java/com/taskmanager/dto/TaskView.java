@@ -0,0 +1,35 @@
+package com.taskmanager.dto;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Slim, immutable view of a task: user references are reduced to id + display name,
+ * so no password hashes or role sets go over the wire.
+ */
+public record TaskView(Long id,
+                       String title,
+                       String description,
+                       String status,
+                       String priority,
+                       Long assigneeId,
+                       String assigneeName,
+                       Long creatorId,
+                       String creatorName,
+                       LocalDate dueDate,
+                       Instant createdAt,
+                       Instant updatedAt,
+                       long version) {
+
+    public static TaskView of(Task t) {
+        User a = t.getAssignee();
+        User c = t.getCreator();
+        return new TaskView(t.getId(), t.getTitle(), t.getDescription(), t.getStatus(), t.getPriority(),
+                a == null ? null : a.getId(), a == null ? null : a.getFullName(),
+                c == null ? null : c.getId(), c == null ? null : c.getFullName(),
+                t.getDueDate(), t.getCreatedAt(), t.getUpdatedAt(), t.getVersion());
+    }
+}
@@ -1,6 +1,5 @@
 package com.taskmanager.dto;
 
-import com.taskmanager.model.Task;
 import com.taskmanager.model.Role;
 import java.util.List;
 import java.util.Set;
@@ -10,10 +9,10 @@ public class UserWithTasksDto {
     private String fullName;
     private String email;
     private Set<Role> roles;
-    private List<Task> assignedTasks;
-    private List<Task> createdTasks;
+    private List<TaskView> assignedTasks;
+    private List<TaskView> createdTasks;
 
-    public UserWithTasksDto(Long id, String fullName, String email, Set<Role> roles, List<Task> assignedTasks, List<Task> createdTasks) {
+    public UserWithTasksDto(Long id, String fullName, String email, Set<Role> roles, List<TaskView> assignedTasks, List<TaskView> createdTasks) {
         this.id = id;
         this.fullName = fullName;
         this.email = email;
@@ -26,6 +25,6 @@ public class UserWithTasksDto {
     public String getFullName() { return fullName; }
     public String getEmail() { return email; }
     public Set<Role> getRoles() { return roles; }
-    public List<Task> getAssignedTasks() { return assignedTasks; }
-    public List<Task> getCreatedTasks() { return createdTasks; }
+    public List<TaskView> getAssignedTasks() { return assignedTasks; }
+    public List<TaskView> getCreatedTasks() { return createdTasks; }
 }
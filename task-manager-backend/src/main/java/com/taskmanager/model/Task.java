@@ -3,12 +3,17 @@ package com.taskmanager.model;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
+// Table, indexes and the search_vector column are defined by the Flyway migrations (db/migration)
 @Entity
 @Table(name = "tasks")
 public class Task {
+    // Sequence with a pooled optimizer (50 ids per round trip) so inserts can be JDBC-batched;
+    // IDENTITY forces one INSERT ... RETURNING per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_id_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -36,6 +41,12 @@ public class Task {
     @Column(name="updated_at")
     private Instant updatedAt = Instant.now();
 
+    // Optimistic lock: every update checks and bumps it, so a concurrent edit fails instead of being
+    // overwritten. Sent as the ETag of a task and expected back in If-Match.
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getTitle() { return title; }
@@ -56,5 +67,14 @@ public class Task {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getVersion() { return version; }
+
+    // updated_at is the delta-sync watermark (GET /api/tasks/changes), so every flushed write moves it.
+    // Truncated to the column's microsecond precision so the value in memory equals the stored one.
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
 
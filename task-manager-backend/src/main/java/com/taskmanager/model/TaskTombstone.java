@@ -0,0 +1,40 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Marker left behind by a task delete so delta-sync clients learn about it.
+ * Assignee/creator ids are copied (not mapped as associations) to apply list visibility rules
+ * after the task and possibly its users are gone.
+ */
+@Entity
+@Table(name = "task_tombstones")
+public class TaskTombstone {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    @Column(name = "creator_id")
+    private Long creatorId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    protected TaskTombstone() {}
+
+    public TaskTombstone(Long taskId, Long assigneeId, Long creatorId, Instant deletedAt) {
+        this.taskId = taskId;
+        this.assigneeId = assigneeId;
+        this.creatorId = creatorId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getTaskId() { return taskId; }
+    public Long getAssigneeId() { return assigneeId; }
+    public Long getCreatorId() { return creatorId; }
+    public Instant getDeletedAt() { return deletedAt; }
+}
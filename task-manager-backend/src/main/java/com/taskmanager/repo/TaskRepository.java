@@ -1,11 +1,54 @@
 package com.taskmanager.repo;
 
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.dto.TaskView;
 import com.taskmanager.model.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>, TaskRepositoryCustom {
     List<Task> findByStatus(String status);
     List<Task> findByAssigneeId(Long assigneeId);
     List<Task> findByCreatorId(Long creatorId);
+
+    // Streamed read-model rows for reports - must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.taskmanager.dto.TaskView(t.id, t.title, t.description, t.status, t.priority, " +
+           "a.id, a.fullName, c.id, c.fullName, t.dueDate, t.createdAt, t.updatedAt, t.version) " +
+           "from Task t join t.assignee a left join t.creator c order by a.id, t.id")
+    Stream<TaskView> streamViewsOrderByAssignee();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.taskmanager.dto.TaskView(t.id, t.title, t.description, t.status, t.priority, " +
+           "a.id, a.fullName, c.id, c.fullName, t.dueDate, t.createdAt, t.updatedAt, t.version) " +
+           "from Task t left join t.assignee a join t.creator c order by c.id, t.id")
+    Stream<TaskView> streamViewsOrderByCreator();
+
+    // One aggregate pass for TaskStatsService; assignee.id/creator.id read the FK columns, no joins
+    @Query("select new com.taskmanager.dto.TaskStatsRow(t.status, t.priority, t.assignee.id, t.creator.id, " +
+           "t.dueDate, count(t)) from Task t group by t.status, t.priority, t.assignee.id, t.creator.id, t.dueDate")
+    List<TaskStatsRow> aggregateStats();
+
+    // Postgres transaction ids for TaskStatsService: which writes a stats rebuild already counted
+    @Query(value = "select txid_current()", nativeQuery = true)
+    long currentTxid();
+
+    // "xmin:xmax:xip,..." of the current transaction's snapshot
+    @Query(value = "select cast(txid_current_snapshot() as text)", nativeQuery = true)
+    String currentSnapshot();
+
+    // [taskId, assigneeId, dueDate] of open, assigned tasks due in [from, to]; range scan on idx_tasks_due_date
+    @Query("select t.id, t.assignee.id, t.dueDate from Task t where t.dueDate between :from and :to " +
+           "and t.assignee is not null and (t.status is null or t.status <> 'DONE')")
+    List<Object[]> findOpenDueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
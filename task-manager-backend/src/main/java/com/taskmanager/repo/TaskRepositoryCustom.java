@@ -0,0 +1,51 @@
+package com.taskmanager.repo;
+
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.model.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-model queries that select {@link TaskView} columns directly instead of loading Task entities.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Views of tasks matching spec, ordered newest first (createdAt desc, id desc).
+     * @param limit max rows, 0 for no limit
+     */
+    List<TaskView> findViews(Specification<Task> spec, int limit);
+
+    /**
+     * Same as {@link #findViews} but oldest change first (updatedAt asc, id asc), for delta sync.
+     */
+    List<TaskView> findChangedViews(Specification<Task> spec, int limit);
+
+    /**
+     * Views of all tasks matching spec in id order, read through a JDBC cursor {@code fetchSize} rows
+     * at a time. Must be consumed inside a transaction and closed.
+     */
+    Stream<TaskView> streamViews(Specification<Task> spec, int fetchSize);
+
+    /**
+     * Full-text matches for a tsquery (see {@link TaskSearchQuery}) on the GIN-indexed search_vector,
+     * best first (rank desc, id desc).
+     * @param userId only tasks the user is assignee or creator of; null for all
+     * @param after keyset position to continue from; null for the first page
+     */
+    List<SearchHit> search(String tsQuery, Long userId, SearchHit after, int limit);
+
+    record SearchHit(Long id, float rank) {}
+
+    /**
+     * Sets a task's status in one statement, only if {@code userId} is its assignee or creator (and, when
+     * {@code expectedVersion} is given, only at that version). Bumps version and updated_at.
+     * @return the updated view and the status it had before; empty if nothing was updated
+     */
+    Optional<StatusUpdate> updateStatusIfOwner(Long id, String status, Long userId, Long expectedVersion);
+
+    record StatusUpdate(TaskView task, String previousStatus) {}
+}
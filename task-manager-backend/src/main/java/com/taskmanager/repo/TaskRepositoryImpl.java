@@ -0,0 +1,162 @@
+package com.taskmanager.repo;
+
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * One SELECT of scalar columns with left joins to users for the display names; nothing ends up
+ * in the persistence context and the EAGER user roles are never touched.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    private final EntityManager em;
+
+    public TaskRepositoryImpl(EntityManager em) {
+        this.em = em;
+    }
+
+    private enum Ordering { NEWEST, OLDEST_CHANGE, ID }
+
+    @Override
+    public List<TaskView> findViews(Specification<Task> spec, int limit) {
+        return limited(viewQuery(spec, Ordering.NEWEST), limit).getResultList();
+    }
+
+    @Override
+    public List<TaskView> findChangedViews(Specification<Task> spec, int limit) {
+        return limited(viewQuery(spec, Ordering.OLDEST_CHANGE), limit).getResultList();
+    }
+
+    // Server-side cursor: Postgres honours the fetch size only inside a transaction (autocommit off)
+    @Override
+    public Stream<TaskView> streamViews(Specification<Task> spec, int fetchSize) {
+        return viewQuery(spec, Ordering.ID)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static <T> TypedQuery<T> limited(TypedQuery<T> query, int limit) {
+        if (limit > 0) query.setMaxResults(limit);
+        return query;
+    }
+
+    private TypedQuery<TaskView> viewQuery(Specification<Task> spec, Ordering ordering) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<TaskView> q = cb.createQuery(TaskView.class);
+        Root<Task> t = q.from(Task.class);
+        Join<Task, User> a = t.join("assignee", JoinType.LEFT);
+        Join<Task, User> c = t.join("creator", JoinType.LEFT);
+        q.select(cb.construct(TaskView.class,
+                t.get("id"), t.get("title"), t.get("description"), t.get("status"), t.get("priority"),
+                a.get("id"), a.get("fullName"), c.get("id"), c.get("fullName"),
+                t.get("dueDate"), t.get("createdAt"), t.get("updatedAt"), t.get("version")));
+        Predicate where = spec.toPredicate(t, q, cb);
+        if (where != null) q.where(where);
+        switch (ordering) {
+            case NEWEST -> q.orderBy(cb.desc(t.get("createdAt")), cb.desc(t.get("id")));
+            case OLDEST_CHANGE -> q.orderBy(cb.asc(t.get("updatedAt")), cb.asc(t.get("id")));
+            case ID -> q.orderBy(cb.asc(t.get("id")));
+        }
+        return em.createQuery(q);
+    }
+
+    // Native: tsvector/tsquery have no JPQL equivalent. Only ids and ranks come back.
+    @Override
+    public List<SearchHit> search(String tsQuery, Long userId, SearchHit after, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, rank FROM (SELECT t.id, ts_rank(t.search_vector, q) AS rank " +
+                "FROM tasks t, to_tsquery('simple', :q) q WHERE t.search_vector @@ q");
+        if (userId != null) sql.append(" AND (t.assignee_id = :userId OR t.creator_id = :userId)");
+        sql.append(") hits");
+        if (after != null) sql.append(" WHERE rank < CAST(:rank AS real) OR (rank = CAST(:rank AS real) AND id < :id)");
+        sql.append(" ORDER BY rank DESC, id DESC");
+
+        Query query = em.createNativeQuery(sql.toString());
+        query.setParameter("q", tsQuery);
+        if (userId != null) query.setParameter("userId", userId);
+        if (after != null) {
+            query.setParameter("rank", after.rank());
+            query.setParameter("id", after.id());
+        }
+        query.setMaxResults(limit);
+
+        List<?> rows = query.getResultList();
+        List<SearchHit> hits = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] cols = (Object[]) row;
+            hits.add(new SearchHit(((Number) cols[0]).longValue(), ((Number) cols[1]).floatValue()));
+        }
+        return hits;
+    }
+
+    /**
+     * Native: a data-modifying CTE updates the row and joins the user names onto RETURNING in a single
+     * round trip. The locked read in "old" yields the status being replaced, which TaskStatsService needs.
+     * The @PreUpdate/@Version work Hibernate would do is done in SQL.
+     */
+    @Override
+    public Optional<StatusUpdate> updateStatusIfOwner(Long id, String status, Long userId, Long expectedVersion) {
+        String sql = "WITH old AS (SELECT id, status FROM tasks WHERE id = :id FOR UPDATE), " +
+                "u AS (UPDATE tasks t SET status = :status, updated_at = :now, version = t.version + 1 " +
+                "FROM old WHERE t.id = old.id AND (t.assignee_id = :userId OR t.creator_id = :userId)" +
+                (expectedVersion != null ? " AND t.version = :version" : "") +
+                " RETURNING t.*, old.status AS previous_status) " +
+                "SELECT u.id, u.title, u.description, u.status, u.priority, " +
+                "a.id AS assignee_id, a.full_name AS assignee_name, c.id AS creator_id, c.full_name AS creator_name, " +
+                "u.due_date, u.created_at, u.updated_at, u.version, u.previous_status " +
+                "FROM u LEFT JOIN users a ON a.id = u.assignee_id LEFT JOIN users c ON c.id = u.creator_id";
+
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("status", String.class)
+                .addScalar("priority", String.class)
+                .addScalar("assignee_id", Long.class)
+                .addScalar("assignee_name", String.class)
+                .addScalar("creator_id", Long.class)
+                .addScalar("creator_name", String.class)
+                .addScalar("due_date", LocalDate.class)
+                .addScalar("created_at", Instant.class)
+                .addScalar("updated_at", Instant.class)
+                .addScalar("version", Long.class)
+                .addScalar("previous_status", String.class);
+        query.setParameter("id", id);
+        query.setParameter("status", status);
+        query.setParameter("now", Instant.now().truncatedTo(ChronoUnit.MICROS));
+        query.setParameter("userId", userId);
+        if (expectedVersion != null) query.setParameter("version", expectedVersion);
+
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) return Optional.empty();
+        Object[] r = (Object[]) rows.get(0);
+        TaskView view = new TaskView((Long) r[0], (String) r[1], (String) r[2], (String) r[3], (String) r[4],
+                (Long) r[5], (String) r[6], (Long) r[7], (String) r[8],
+                (LocalDate) r[9], (Instant) r[10], (Instant) r[11], (Long) r[12]);
+        return Optional.of(new StatusUpdate(view, (String) r[13]));
+    }
+}
@@ -0,0 +1,34 @@
+package com.taskmanager.repo;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text into a Postgres tsquery: every word becomes a prefix term and all must match,
+ * e.g. "fix log" -> {@code fix:* & log:*}. Only letters and digits survive, so user input can't
+ * inject tsquery operators.
+ */
+public final class TaskSearchQuery {
+
+    public static final int MAX_TERMS = 8;
+
+    private TaskSearchQuery() {}
+
+    /** @return the tsquery text, or null if the input has no searchable words */
+    public static String prefixQuery(String text) {
+        if (text == null) return null;
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) terms.add(word);
+            if (terms.size() == MAX_TERMS) break;
+        }
+        if (terms.isEmpty()) return null;
+        StringBuilder q = new StringBuilder();
+        for (String term : terms) {
+            if (q.length() > 0) q.append(" & ");
+            q.append(term).append(":*");
+        }
+        return q.toString();
+    }
+}
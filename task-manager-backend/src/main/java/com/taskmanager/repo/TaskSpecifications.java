@@ -0,0 +1,74 @@
+package com.taskmanager.repo;
+
+import com.taskmanager.dto.TaskFilter;
+import com.taskmanager.model.Task;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds a single WHERE clause for task listings. Only the criteria that are set end up in the
+ * query, so Postgres can pick the matching composite index
+ * (assignee_id/creator_id + status, status + due_date).
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {}
+
+    public static Specification<Task> matching(TaskFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> where = new ArrayList<>();
+            if (filter.getUserId() != null) {
+                // plain FK comparisons, no join to users needed
+                where.add(cb.or(
+                        cb.equal(root.get("assignee").get("id"), filter.getUserId()),
+                        cb.equal(root.get("creator").get("id"), filter.getUserId())));
+            }
+            if (filter.getStatus() != null) {
+                where.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getPriority() != null) {
+                where.add(cb.equal(root.get("priority"), filter.getPriority()));
+            }
+            if (filter.getDueFrom() != null) {
+                where.add(cb.greaterThanOrEqualTo(root.get("dueDate"), filter.getDueFrom()));
+            }
+            if (filter.getDueTo() != null) {
+                where.add(cb.lessThanOrEqualTo(root.get("dueDate"), filter.getDueTo()));
+            }
+            return cb.and(where.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Task> withId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    public static Specification<Task> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Task> assignedTo(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("assignee").get("id"), userId);
+    }
+
+    // (since, until] on updated_at, served by idx_tasks_updated_at_id
+    public static Specification<Task> updatedBetween(Instant since, Instant until) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThan(root.get("updatedAt"), since),
+                cb.lessThanOrEqualTo(root.get("updatedAt"), until));
+    }
+
+    /**
+     * Keyset seek for (createdAt desc, id desc) ordering: rows strictly after the given cursor position.
+     */
+    public static Specification<Task> after(Instant createdAt, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id)));
+    }
+}
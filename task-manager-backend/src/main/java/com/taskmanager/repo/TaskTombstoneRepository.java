@@ -0,0 +1,27 @@
+package com.taskmanager.repo;
+
+import com.taskmanager.model.TaskTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    @Query("select t.taskId from TaskTombstone t where t.deletedAt > :since and t.deletedAt <= :until")
+    List<Long> findDeletedIds(@Param("since") Instant since, @Param("until") Instant until);
+
+    @Query("select t.taskId from TaskTombstone t where t.deletedAt > :since and t.deletedAt <= :until " +
+           "and (t.assigneeId = :userId or t.creatorId = :userId)")
+    List<Long> findDeletedIdsForUser(@Param("since") Instant since, @Param("until") Instant until,
+                                     @Param("userId") Long userId);
+
+    List<TaskTombstone> findByDeletedAtAfter(Instant since);
+
+    @Modifying
+    @Query("delete from TaskTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
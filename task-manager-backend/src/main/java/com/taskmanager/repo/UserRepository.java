@@ -1,10 +1,40 @@
 package com.taskmanager.repo;
 
 import com.taskmanager.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Query cache holds the id, the entity comes from the "users" region; any write to users invalidates it
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // [id, fullName, email, role id, role name, role description] per user and role, ordered by user id
+    // (users without roles once, with null role columns). Streamed scalars for reports: no entities are
+    // loaded; must be consumed inside a transaction and closed.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select u.id, u.fullName, u.email, r.id, r.name, r.description " +
+           "from User u left join u.roles r order by u.id, r.id")
+    Stream<Object[]> streamWithRolesOrderById();
+
+    // One element (null if never changed) while the user exists, none once deleted. Not query-cached: must
+    // see changes made on other instances.
+    @Query("select u.credentialsChangedAt from User u where u.email = :email")
+    List<Instant> findCredentialsChangedAt(@Param("email") String email);
+
+    // [email, id] of every user - two columns, no entities, for building an email lookup map
+    @Query("select u.email, u.id from User u")
+    List<Object[]> findAllEmailIds();
 }
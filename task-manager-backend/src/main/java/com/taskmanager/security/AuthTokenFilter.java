@@ -1,6 +1,7 @@
 package com.taskmanager.security;
 
-import com.taskmanager.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,12 +20,12 @@ import java.io.IOException;
 public class AuthTokenFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
-    private JwtUtils jwtUtils;
-    private UserDetailsServiceImpl userDetailsService;
+    private JwtPrincipalResolver principalResolver;
+    private MeterRegistry meterRegistry;
 
-    public AuthTokenFilter(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService) {
-        this.jwtUtils = jwtUtils;
-        this.userDetailsService = userDetailsService;
+    public AuthTokenFilter(JwtPrincipalResolver principalResolver, MeterRegistry meterRegistry) {
+        this.principalResolver = principalResolver;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -34,25 +35,28 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
 
+        // times only this filter's own work, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwt = parseJwt(request);
-            logger.info("[AuthTokenFilter] JWT from header: {}", jwt);
             if (jwt != null) {
-                boolean valid = jwtUtils.validateJwtToken(jwt);
-                logger.info("[AuthTokenFilter] JWT valid: {}", valid);
-                if (valid) {
-                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                    logger.info("[AuthTokenFilter] Username from JWT: {}", username);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = principalResolver.resolve(jwt);
+                logger.debug("[AuthTokenFilter] JWT valid: {}", userDetails != null);
+                outcome = "invalid";
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(auth);
+                    outcome = "authenticated";
                 }
             }
         } catch (Exception e) {
+            outcome = "error";
             logger.error("[AuthTokenFilter] Exception during JWT processing", e);
         }
+        sample.stop(meterRegistry.timer("auth.jwt.filter", "outcome", outcome));
 
         filterChain.doFilter(request, response);
     }
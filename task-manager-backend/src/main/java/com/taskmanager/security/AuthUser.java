@@ -0,0 +1,42 @@
+package com.taskmanager.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated principal carrying the user id and a precomputed admin flag, so controllers
+ * don't need to look the user up again. Built from JWT claims by {@link AuthTokenFilter}
+ * (password is null then) or from the database by UserDetailsServiceImpl.
+ */
+public class AuthUser implements UserDetails {
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+    private final boolean admin;
+
+    public AuthUser(Long id, String email, String password, Collection<String> roleNames) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = roleNames.stream()
+                .map(r -> (GrantedAuthority) new SimpleGrantedAuthority(r))
+                .toList();
+        this.admin = roleNames.contains("ROLE_ADMIN") || roleNames.contains("ROLE_SUPERADMIN");
+    }
+
+    public Long getId() { return id; }
+    public boolean isAdmin() { return admin; }
+
+    @Override public String getUsername() { return email; }
+    @Override public String getPassword() { return password; }
+    @Override public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+    @Override public boolean isAccountNonExpired() { return true; }
+    @Override public boolean isAccountNonLocked() { return true; }
+    @Override public boolean isCredentialsNonExpired() { return true; }
+    @Override public boolean isEnabled() { return true; }
+}
@@ -0,0 +1,52 @@
+package com.taskmanager.security;
+
+import com.taskmanager.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Turns a bearer token into a principal. Shared by the HTTP filter and the STOMP CONNECT interceptor.
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    private final JwtUtils jwtUtils;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCache principalCache;
+
+    public JwtPrincipalResolver(JwtUtils jwtUtils, UserDetailsServiceImpl userDetailsService,
+                                PrincipalCache principalCache) {
+        this.jwtUtils = jwtUtils;
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Returns null if the token is invalid or expired.
+     * Throws UsernameNotFoundException if the DB fallback can't find the user any more.
+     */
+    public UserDetails resolve(String jwt) {
+        // one parse: signature + expiry check and claims extraction
+        Claims claims = jwtUtils.parseVerifiedClaims(jwt);
+        if (claims == null) return null;
+        UserDetails userDetails = principalFromClaims(claims);
+        if (userDetails == null) {
+            // legacy token without uid/roles, or user changed since issue
+            userDetails = principalCache.get(claims.getSubject(), userDetailsService::loadUserByUsername);
+        }
+        return userDetails;
+    }
+
+    private AuthUser principalFromClaims(Claims claims) {
+        Number uid = claims.get(JwtUtils.CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(JwtUtils.CLAIM_ROLES, List.class);
+        if (uid == null || roles == null || principalCache.isStale(claims.getSubject(), claims.getIssuedAt())) {
+            return null;
+        }
+        List<String> roleNames = roles.stream().map(String::valueOf).toList();
+        return new AuthUser(uid.longValue(), claims.getSubject(), null, roleNames);
+    }
+}
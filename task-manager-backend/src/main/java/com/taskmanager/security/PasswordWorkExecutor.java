@@ -0,0 +1,110 @@
+package com.taskmanager.security;
+
+import com.taskmanager.config.ReplicaRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing/verification (login, register, password reset) on a small fixed pool
+ * with a bounded queue, so a login burst can't tie up the servlet threads the rest of the API needs.
+ *
+ * Work is refused with {@link PasswordWorkRejectedException} when the queue is full, and also when
+ * a task sat in the queue longer than maxQueueWaitMs (the client has most likely given up by then).
+ * Metrics: auth.password.queue.wait and auth.password.execution timers tagged by operation,
+ * auth.password.rejected counter tagged by operation and reason.
+ */
+@Component
+public class PasswordWorkExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordWorkExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+    private final long maxQueueWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordWorkExecutor(@Value("${app.passwordHashing.threads:2}") int threads,
+                                @Value("${app.passwordHashing.queueCapacity:64}") int queueCapacity,
+                                @Value("${app.passwordHashing.maxQueueWaitMs:2000}") long maxQueueWaitMs,
+                                MeterRegistry meterRegistry) {
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    // login right after register/reset must find the new row: user lookups stay on the primary
+                    Thread t = new Thread(() -> {
+                        ReplicaRouting.pinToPrimary();
+                        r.run();
+                    }, "password-work-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Queues {@code work} and returns immediately. Throws {@link PasswordWorkRejectedException}
+     * right away if the queue is full; the returned future fails with it if the task expired in the queue.
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> work) {
+        long enqueuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                timer("auth.password.queue.wait", operation).record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    rejected(operation, "expired").increment();
+                    result.completeExceptionally(new PasswordWorkRejectedException());
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    result.complete(work.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    timer("auth.password.execution", operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected(operation, "queue_full").increment();
+            logger.warn("Password work queue full, rejecting {}", operation);
+            throw new PasswordWorkRejectedException();
+        }
+        return result;
+    }
+
+    public int getQueueSize() { return pool.getQueue().size(); }
+    public int getActiveCount() { return pool.getActiveCount(); }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name).tag("operation", operation).register(meterRegistry);
+    }
+
+    private Counter rejected(String operation, String reason) {
+        return Counter.builder("auth.password.rejected")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
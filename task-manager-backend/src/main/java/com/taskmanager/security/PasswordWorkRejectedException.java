@@ -0,0 +1,8 @@
+package com.taskmanager.security;
+
+/** The password hashing pool is saturated; callers answer 503 with Retry-After. */
+public class PasswordWorkRejectedException extends RuntimeException {
+    public PasswordWorkRejectedException() {
+        super("Authentication is busy, please retry shortly");
+    }
+}
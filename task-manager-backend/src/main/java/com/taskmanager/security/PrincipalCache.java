@@ -0,0 +1,85 @@
+package com.taskmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.model.User;
+import com.taskmanager.repo.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicted cache of verified principals keyed by token subject (email).
+ * Anything that changes a user's password or roles, or deletes the user, must call {@link #evict(String)}
+ * and also set {@link User#setCredentialsChangedAt} when it writes the user.
+ *
+ * Claims in tokens issued before the user's last change are not trusted (see {@link #isStale}); those
+ * requests fall back to a fresh DB-backed principal. The change time is kept here per user, but it is
+ * loaded from the persisted users.credentials_changed_at, so a restart or a size eviction doesn't make
+ * such a token trusted again.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserDetails> cache;
+    // email -> last change, EPOCH if never, MAX if the user is gone; a miss reads it from the users table
+    private final Cache<String, Instant> changedAt;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${app.principalCache.maxSize:10000}") long maxSize,
+                          @Value("${app.principalCache.ttlSeconds:60}") long ttlSeconds,
+                          @Value("${app.jwtExpirationMs}") long jwtExpirationMs) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.changedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+                .build();
+    }
+
+    /**
+     * True if the user changed at or after the token's issue time (iat has second precision,
+     * so the same second counts as stale).
+     */
+    public boolean isStale(String email, Date issuedAt) {
+        if (issuedAt == null) return true;
+        return issuedAt.toInstant().getEpochSecond() <= changedAt.get(email, this::loadChangedAt).getEpochSecond();
+    }
+
+    private Instant loadChangedAt(String email) {
+        // the primary: a replica may not have the change yet
+        List<Instant> rows = ReplicaRouting.onPrimary(() -> userRepository.findCredentialsChangedAt(email));
+        if (rows.isEmpty()) return Instant.MAX;
+        return rows.get(0) != null ? rows.get(0) : Instant.EPOCH;
+    }
+
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void evict(String email) {
+        if (email == null) return;
+        changedAt.put(email, Instant.now());
+        cache.invalidate(email);
+    }
+
+    /**
+     * Drops every principal and every known change time, for when changes may have been missed (relay
+     * reconnect). Each user's next token is checked against the change time persisted with the user again.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+        changedAt.invalidateAll();
+    }
+}
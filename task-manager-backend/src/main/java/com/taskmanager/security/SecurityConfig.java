@@ -1,7 +1,7 @@
 package com.taskmanager.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
-import com.taskmanager.service.UserDetailsServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,17 +21,17 @@ import org.springframework.web.filter.CorsFilter;
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    private final JwtUtils jwtUtils;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final JwtPrincipalResolver principalResolver;
+    private final MeterRegistry meterRegistry;
 
-    public SecurityConfig(JwtUtils jwtUtils, UserDetailsServiceImpl uds) {
-        this.jwtUtils = jwtUtils;
-        this.userDetailsService = uds;
+    public SecurityConfig(JwtPrincipalResolver principalResolver, MeterRegistry meterRegistry) {
+        this.principalResolver = principalResolver;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
-        return new AuthTokenFilter(jwtUtils, userDetailsService);
+        return new AuthTokenFilter(principalResolver, meterRegistry);
     }
 
     @Bean
@@ -41,6 +41,8 @@ public class SecurityConfig {
             .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**","/ws/**","/topic/**").permitAll()
+                // management port is bound to 127.0.0.1 only
+                .requestMatchers("/actuator/health","/actuator/prometheus").permitAll()
                 .anyRequest().authenticated()
             )
             .httpBasic(Customizer.withDefaults())
@@ -62,6 +64,8 @@ public class SecurityConfig {
         config.addAllowedOrigin("http://127.0.0.1:5174");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        // lets the frontend read a task's version for If-Match
+        config.addExposedHeader("ETag");
         config.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
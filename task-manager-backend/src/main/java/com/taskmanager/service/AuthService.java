@@ -9,11 +9,13 @@ import com.taskmanager.model.User;
 import com.taskmanager.repo.RoleRepository;
 import com.taskmanager.repo.UserRepository;
 import com.taskmanager.security.JwtUtils;
+import com.taskmanager.security.PrincipalCache;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,20 +26,26 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final PrincipalCache principalCache;
+    private final ListingVersions versions;
+    private final TaskEventRelay relay;
 
     public AuthService(AuthenticationManager authenticationManager, UserRepository userRepository,
-                       RoleRepository roleRepository, PasswordEncoder encoder, JwtUtils jwtUtils) {
+                       RoleRepository roleRepository, PasswordEncoder encoder, JwtUtils jwtUtils,
+                       PrincipalCache principalCache, ListingVersions versions, TaskEventRelay relay) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.encoder = encoder;
         this.jwtUtils = jwtUtils;
+        this.principalCache = principalCache;
+        this.versions = versions;
+        this.relay = relay;
     }
 
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
-        String jwt = jwtUtils.generateJwtToken(loginRequest.getEmail());
         User user = userRepository.findByEmail(loginRequest.getEmail()).get();
         Set<String> roles = new java.util.HashSet<>();
         if (user.getRoles() != null) {
@@ -45,6 +53,7 @@ public class AuthService {
                 roles.add(r.getName());
             }
         }
+        String jwt = jwtUtils.generateJwtToken(user.getEmail(), user.getId(), roles);
         return new JwtResponse(jwt, user.getId(), user.getEmail(), user.getFullName(), roles);
     }
 
@@ -65,6 +74,8 @@ public class AuthService {
         roles.add(roleUser);
         u.setRoles(roles);
         userRepository.save(u);
+        versions.usersChanged();
+        relay.userChanged(u.getId(), u.getEmail());
         return "User registered successfully!";
     }
 
@@ -74,7 +85,11 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + request.getEmail()));
 
         user.setPassword(encoder.encode(request.getNewPassword()));
+        user.setCredentialsChangedAt(Instant.now());
         userRepository.save(user);
+        principalCache.evict(user.getEmail());
+        versions.usersChanged();
+        relay.userChanged(user.getId(), user.getEmail());
 
         return "Password reset successful!";
     }
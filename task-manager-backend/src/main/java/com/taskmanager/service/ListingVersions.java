@@ -0,0 +1,130 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Version counters for conditional GETs on the task and user listings. Every committed task write
+ * (via TaskService events) or user write (via {@link #usersChanged()}) bumps a counter, so an ETag
+ * can be computed without touching the database and an unchanged listing is answered with 304.
+ *
+ * Counters move only after commit: a reader that sees the new version is guaranteed to read the
+ * new rows. They are per process; the start time is part of every ETag so a restart invalidates them.
+ * With a read replica the rows behind a new version may not have been replayed there yet, so listings
+ * are read through {@link #read} and come from the primary for a while after each change.
+ */
+@Component
+public class ListingVersions {
+
+    /**
+     * Cache-Control for versioned listings: browsers may keep a private copy but must revalidate each
+     * time. Set explicitly, otherwise Spring Security's default no-store stops them sending If-None-Match.
+     */
+    public static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong lastModified = new AtomicLong(ceilToSecond(System.currentTimeMillis()));
+    // wall-clock time of the last change; the start counts as one (writes just before a restart)
+    private final AtomicLong lastChangeAt = new AtomicLong(System.currentTimeMillis());
+    private final long replicaCatchUpMs;
+
+    /** @param replicaCatchUpMs how long after a change a replica may still miss it (longer than its allowed lag) */
+    public ListingVersions(@Value("${app.datasource.replica.readYourWritesMs:5000}") long replicaCatchUpMs) {
+        this.replicaCatchUpMs = replicaCatchUpMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        bump(tasks);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        bump(tasks);
+    }
+
+    /** Call after any write to users or their roles; applied once the current transaction commits. */
+    public void usersChanged() {
+        afterCommit(users);
+    }
+
+    /** For task writes that don't publish task events (bulk import). */
+    public void tasksChanged() {
+        afterCommit(tasks);
+    }
+
+    private void afterCommit(AtomicLong counter) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(counter);
+                }
+            });
+        } else {
+            bump(counter);
+        }
+    }
+
+    /**
+     * Strong ETag for one listing. Task views carry user names, so both counters are always included.
+     * @param scope what distinguishes this response from others at the same versions (endpoint, caller, parameters)
+     */
+    public String etag(String scope) {
+        return "\"" + epoch + "-" + tasks.get() + "-" + users.get() + "-" + Integer.toHexString(scope.hashCode()) + "\"";
+    }
+
+    /**
+     * Runs the query behind a versioned listing; call it after computing the ETag, outside a transaction.
+     * Right after a change it reads from the primary: a lagging replica could otherwise answer with rows
+     * older than the ETag sent along, and the client would keep that copy through every later 304.
+     * Without a replica this is just {@code query.get()}.
+     */
+    public <T> T read(Supplier<T> query) {
+        return changedRecently() ? ReplicaRouting.onPrimary(query) : query.get();
+    }
+
+    /** True while a replica may not have replayed the last change yet. */
+    public boolean changedRecently() {
+        return System.currentTimeMillis() - lastChangeAt.get() < replicaCatchUpMs;
+    }
+
+    /** Last-Modified value in millis; whole seconds, and strictly increasing with every change. */
+    public long lastModified() {
+        return lastModified.get();
+    }
+
+    /** Scope key from an endpoint name, the caller and the request parameters (order-insensitive). */
+    public static String scope(String endpoint, Long userId, Map<String, String[]> params) {
+        StringBuilder key = new StringBuilder(endpoint).append('|').append(userId);
+        new TreeMap<>(params).forEach((name, values) -> key.append('|').append(name).append('=').append(Arrays.toString(values)));
+        return key.toString();
+    }
+
+    private void bump(AtomicLong counter) {
+        // before the counter: whoever sees the new version also sees that it is recent
+        lastChangeAt.set(System.currentTimeMillis());
+        counter.incrementAndGet();
+        // HTTP dates have second precision: never reuse the previous second, or If-Modified-Since would miss this change
+        lastModified.updateAndGet(prev -> Math.max(ceilToSecond(System.currentTimeMillis()), prev + 1000));
+    }
+
+    private static long ceilToSecond(long millis) {
+        return (millis + 999) / 1000 * 1000;
+    }
+}
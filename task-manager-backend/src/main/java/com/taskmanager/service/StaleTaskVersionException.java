@@ -0,0 +1,13 @@
+package com.taskmanager.service;
+
+/** The task was changed since the version the client sent in If-Match; answered with 412. */
+public class StaleTaskVersionException extends RuntimeException {
+    private final long currentVersion;
+
+    public StaleTaskVersionException(long currentVersion) {
+        super("Task was modified (current version " + currentVersion + ")");
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() { return currentVersion; }
+}
@@ -0,0 +1,47 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.TaskView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.DateTimeException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor on (createdAt, id). Clients get it back as {@code nextCursor}
+ * and pass it unchanged as {@code ?cursor=} to fetch the following page.
+ */
+public final class TaskCursor {
+    private final Instant createdAt;
+    private final Long id;
+
+    private TaskCursor(Instant createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public Long getId() { return id; }
+
+    public static String encode(TaskView last) {
+        Instant ts = last.createdAt();
+        String raw = ts.getEpochSecond() + "." + ts.getNano() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(TaskView)}
+     */
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int dot = raw.indexOf('.');
+            int sep = raw.indexOf('|');
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(raw.substring(0, dot)),
+                    Long.parseLong(raw.substring(dot + 1, sep)));
+            return new TaskCursor(createdAt, Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
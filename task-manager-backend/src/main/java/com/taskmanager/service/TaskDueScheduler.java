@@ -0,0 +1,270 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import com.taskmanager.dto.TaskReminder;
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.TaskSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Due-date reminders and overdue notices for assignees, without polling the tasks table.
+ *
+ * Open, assigned tasks due inside a window (yesterday .. today + app.dueReminders.horizonDays) are kept
+ * in a day-bucketed timing wheel: one bucket of task id -> assignee id per due date. It is loaded with one
+ * range query on idx_tasks_due_date, kept current from committed TaskService events, and extended by one
+ * day's range query per tick, so memory is bounded by the tasks due in the window, not the table size.
+ *
+ * Once a day at app.dueReminders.time a single thread sends DUE_SOON for the bucket leadDays ahead and
+ * OVERDUE for the buckets that have passed. Tasks about to be notified are re-read (in chunks, by id) and
+ * skipped if they were finished, reassigned or moved meanwhile, so the wheel only has to be approximately
+ * right. Notifications go to /user/queue/reminders of assignees with an open task subscription; like task
+ * events they are live only and not replayed to users who connect later.
+ */
+@Component
+public class TaskDueScheduler implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TaskDueScheduler.class);
+
+    public static final String USER_QUEUE = "/queue/reminders";
+    private static final int VERIFY_CHUNK = 1000;
+
+    private final TaskRepository taskRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskSubscriptionRegistry subscriptions;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int leadDays;
+    private final LocalTime fireAt;
+    private final ZoneId zone;
+
+    // due date -> (task id -> assignee id), plus the reverse index for moves and removals
+    private final TreeMap<LocalDate, Map<Long, Long>> buckets = new TreeMap<>();
+    private final Map<Long, LocalDate> dueById = new HashMap<>();
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    private final AtomicLong remindersSent = new AtomicLong();
+    private final AtomicLong overdueSent = new AtomicLong();
+
+    private volatile ScheduledExecutorService timer;
+
+    public TaskDueScheduler(TaskRepository taskRepository, SimpMessagingTemplate messagingTemplate,
+                            TaskSubscriptionRegistry subscriptions,
+                            @Value("${app.dueReminders.enabled:true}") boolean enabled,
+                            @Value("${app.dueReminders.horizonDays:7}") int horizonDays,
+                            @Value("${app.dueReminders.leadDays:1}") int leadDays,
+                            @Value("${app.dueReminders.time:08:00}") String fireAt,
+                            @Value("${app.dueReminders.zone:}") String zone) {
+        this.taskRepository = taskRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.enabled = enabled;
+        this.horizonDays = Math.max(horizonDays, leadDays);
+        this.leadDays = leadDays;
+        this.fireAt = LocalTime.parse(fireAt);
+        this.zone = zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+
+    /** (Re)loads the whole window; also used after task writes that publish no events (bulk import). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        if (!enabled) return;
+        LocalDate today = LocalDate.now(zone);
+        LocalDate from = today.minusDays(1);
+        LocalDate to = today.plusDays(horizonDays);
+        // primary: reloads follow writes (bulk import) that a replica may not have yet
+        List<Object[]> rows = ReplicaRouting.onPrimary(() -> taskRepository.findOpenDueBetween(from, to));
+        synchronized (this) {
+            buckets.clear();
+            dueById.clear();
+            windowStart = from;
+            windowEnd = to;
+            for (Object[] row : rows) put((Long) row[0], (Long) row[1], (LocalDate) row[2]);
+        }
+        logger.info("Due-date scheduler loaded {} tasks due {} .. {}", rows.size(), from, to);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        apply(List.of(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        apply(batch.getEvents());
+    }
+
+    /** Applies committed task changes, local or relayed from another instance. */
+    public synchronized void apply(List<TaskEvent> events) {
+        if (!enabled || windowStart == null) return;
+        for (TaskEvent e : events) {
+            TaskView v = e.getTask();
+            if (v != null && tracked(v)) {
+                put(v.id(), v.assigneeId(), v.dueDate());
+            } else {
+                remove(e.getTaskId());
+            }
+        }
+    }
+
+    private boolean tracked(TaskView v) {
+        return v.assigneeId() != null && v.dueDate() != null && !TaskStatsService.DONE.equals(v.status())
+                && !v.dueDate().isBefore(windowStart) && !v.dueDate().isAfter(windowEnd);
+    }
+
+    private void put(Long taskId, Long assigneeId, LocalDate due) {
+        remove(taskId);
+        buckets.computeIfAbsent(due, d -> new HashMap<>()).put(taskId, assigneeId);
+        dueById.put(taskId, due);
+    }
+
+    private void remove(Long taskId) {
+        LocalDate due = dueById.remove(taskId);
+        if (due == null) return;
+        Map<Long, Long> bucket = buckets.get(due);
+        bucket.remove(taskId);
+        if (bucket.isEmpty()) buckets.remove(due);
+    }
+
+    /** The daily run: overdue notices for passed due dates, reminders for the lead day, then the window moves on. */
+    void tick() {
+        tick(LocalDate.now(zone));
+    }
+
+    void tick(LocalDate today) {
+        Map<LocalDate, Map<Long, Long>> passed;
+        Map<Long, Long> dueSoon;
+        LocalDate loadFrom;
+        LocalDate loadTo;
+        LocalDate soonDate = today.plusDays(leadDays);
+        synchronized (this) {
+            if (windowStart == null) return;
+            Map<LocalDate, Map<Long, Long>> head = buckets.headMap(today);
+            passed = new TreeMap<>(head);
+            passed.values().forEach(b -> b.keySet().forEach(dueById::remove));
+            head.clear();
+            dueSoon = new HashMap<>(buckets.getOrDefault(soonDate, Map.of()));
+            windowStart = today;
+            loadFrom = windowEnd.plusDays(1);
+            windowEnd = today.plusDays(horizonDays);
+            loadTo = windowEnd;
+        }
+        passed.forEach((date, bucket) -> overdueSent.addAndGet(notify(TaskReminder.Type.OVERDUE, date, bucket)));
+        remindersSent.addAndGet(notify(TaskReminder.Type.DUE_SOON, soonDate, dueSoon));
+
+        // only the days that just entered the window are read
+        if (!loadFrom.isAfter(loadTo)) {
+            // primary, like reload(): events for tasks written meanwhile may already have been applied
+            List<Object[]> rows = ReplicaRouting.onPrimary(() -> taskRepository.findOpenDueBetween(loadFrom, loadTo));
+            synchronized (this) {
+                for (Object[] row : rows) {
+                    if (!dueById.containsKey((Long) row[0])) put((Long) row[0], (Long) row[1], (LocalDate) row[2]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends one notice per task still open, assigned to the same user and due on {@code date}.
+     * Assignees without an open subscription are skipped before any row is read.
+     */
+    private long notify(TaskReminder.Type type, LocalDate date, Map<Long, Long> bucket) {
+        Map<Long, TaskSubscriptionRegistry.Subscriber> online = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        bucket.forEach((taskId, assigneeId) -> {
+            TaskSubscriptionRegistry.Subscriber s = subscriptions.find(assigneeId);
+            if (s != null) {
+                online.put(assigneeId, s);
+                ids.add(taskId);
+            }
+        });
+        long sent = 0;
+        for (int i = 0; i < ids.size(); i += VERIFY_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(i + VERIFY_CHUNK, ids.size()));
+            Map<String, List<TaskReminder>> byUser = new HashMap<>();
+            // primary: a task finished or moved a moment ago must not be notified from a lagging replica
+            List<TaskView> current = ReplicaRouting.onPrimary(() -> taskRepository.findViews(TaskSpecifications.idIn(chunk), 0));
+            for (TaskView v : current) {
+                TaskSubscriptionRegistry.Subscriber s = online.get(v.assigneeId());
+                if (s == null || !date.equals(v.dueDate()) || TaskStatsService.DONE.equals(v.status())) continue;
+                byUser.computeIfAbsent(s.principalName(), k -> new ArrayList<>())
+                        .add(new TaskReminder(type, v.id(), v.title(), v.dueDate()));
+            }
+            for (Map.Entry<String, List<TaskReminder>> e : byUser.entrySet()) {
+                messagingTemplate.convertAndSendToUser(e.getKey(), USER_QUEUE, e.getValue());
+                sent += e.getValue().size();
+            }
+        }
+        return sent;
+    }
+
+    private void runTick() {
+        try {
+            tick();
+        } catch (Exception e) {
+            logger.warn("Due-date scheduler run failed: {}", e.getMessage(), e);
+        } finally {
+            scheduleNext();
+        }
+    }
+
+    // one-shot per day rather than a fixed rate, so DST changes don't shift the time
+    private void scheduleNext() {
+        ScheduledExecutorService t = timer;
+        if (t == null || t.isShutdown()) return;
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime next = now.toLocalDate().atTime(fireAt).atZone(zone);
+        if (!next.isAfter(now)) next = now.toLocalDate().plusDays(1).atTime(fireAt).atZone(zone);
+        t.schedule(this::runTick, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized int getPendingCount() { return dueById.size(); }
+    public long getRemindersSentCount() { return remindersSent.get(); }
+    public long getOverdueSentCount() { return overdueSent.get(); }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-due-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduleNext();
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService t = timer;
+        timer = null;
+        if (t != null) t.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() { return timer != null; }
+}
@@ -0,0 +1,193 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ships task change events to WebSocket subscribers off the request thread.
+ *
+ * Events are accepted only after the surrounding transaction commits, go into a bounded queue
+ * (new events are dropped and counted when it is full), and a single dispatcher thread drains them
+ * in batches. Within a batch, events for the same task id are merged so a burst of edits costs one message.
+ * Each recipient (assignee, creator, former assignee or creator of a changed task, and admins) gets the
+ * events of a batch it may see as one list payload on its own /user/queue/tasks.
+ */
+@Component
+public class TaskEventDispatcher implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventDispatcher.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskSubscriptionRegistry subscriptions;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerMs;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    public TaskEventDispatcher(SimpMessagingTemplate messagingTemplate,
+                               TaskSubscriptionRegistry subscriptions,
+                               @Value("${app.taskEvents.queueCapacity:10000}") int queueCapacity,
+                               @Value("${app.taskEvents.batchSize:500}") int batchSize,
+                               @Value("${app.taskEvents.lingerMs:50}") long lingerMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+    }
+
+    // fallbackExecution: writes outside a transaction are still published (immediately)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskEvent(TaskEvent event) {
+        enqueue(List.of(event));
+    }
+
+    // a whole batch request takes a single queue slot and is delivered together
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskBatch(TaskBatchEvent batch) {
+        if (!batch.getEvents().isEmpty()) enqueue(batch.getEvents());
+    }
+
+    /** Events committed on another instance (see TaskEventRelay); delivered like local ones. */
+    public void publishRemote(List<TaskEvent> events) {
+        if (!events.isEmpty()) enqueue(events);
+    }
+
+    private void enqueue(List<TaskEvent> events) {
+        published.addAndGet(events.size());
+        if (!queue.offer(new Pending(events, System.nanoTime()))) {
+            dropped.addAndGet(events.size());
+            logger.warn("Task event queue full, dropping {} event(s) starting with task {}",
+                    events.size(), events.get(0).getTaskId());
+        }
+    }
+
+    private void runLoop() {
+        List<Pending> drained = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                drained.add(first);
+                // give a burst a moment to accumulate so it can be coalesced
+                if (lingerMs > 0 && queue.size() < batchSize) Thread.sleep(lingerMs);
+                queue.drainTo(drained, batchSize - 1);
+                send(coalesce(drained));
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } catch (Exception e) {
+                sendFailures.incrementAndGet();
+                logger.warn("Task event broadcast failed: {}", e.getMessage());
+            } finally {
+                drained.clear();
+            }
+        }
+    }
+
+    private List<TaskEvent> coalesce(List<Pending> batch) {
+        Map<Long, TaskEvent> byTask = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            for (TaskEvent e : p.events) {
+                TaskEvent prev = byTask.get(e.getTaskId());
+                if (prev != null) {
+                    coalesced.incrementAndGet();
+                    byTask.put(e.getTaskId(), e.mergeAfter(prev));
+                } else {
+                    byTask.put(e.getTaskId(), e);
+                }
+            }
+        }
+        return new ArrayList<>(byTask.values());
+    }
+
+    private void send(List<TaskEvent> events) {
+        Map<String, List<TaskEvent>> byRecipient = new HashMap<>();
+        for (TaskEvent e : events) {
+            Set<String> recipients = new HashSet<>();
+            addRecipient(recipients, subscriptions.find(e.getAssigneeId()));
+            addRecipient(recipients, subscriptions.find(e.getCreatorId()));
+            for (Long previous : e.getPreviousOwnerIds()) {
+                addRecipient(recipients, subscriptions.find(previous));
+            }
+            for (TaskSubscriptionRegistry.Subscriber admin : subscriptions.admins()) {
+                addRecipient(recipients, admin);
+            }
+            for (String r : recipients) {
+                byRecipient.computeIfAbsent(r, k -> new ArrayList<>()).add(e);
+            }
+        }
+        byRecipient.forEach((user, list) ->
+                messagingTemplate.convertAndSendToUser(user, TaskSubscriptionRegistry.USER_QUEUE, list));
+        batchesSent.incrementAndGet();
+    }
+
+    private static void addRecipient(Set<String> recipients, TaskSubscriptionRegistry.Subscriber s) {
+        if (s != null) recipients.add(s.principalName());
+    }
+
+    /** Age in milliseconds of the oldest event still waiting in the queue, 0 when empty. */
+    public long getQueueLagMs() {
+        Pending head = queue.peek();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAt);
+    }
+
+    public int getQueueSize() { return queue.size(); }
+    public long getPublishedCount() { return published.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public long getBatchesSentCount() { return batchesSent.get(); }
+    public long getSendFailureCount() { return sendFailures.get(); }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "task-event-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+
+    private record Pending(List<TaskEvent> events, long enqueuedAt) {}
+}
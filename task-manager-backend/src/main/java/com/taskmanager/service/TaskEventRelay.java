@@ -0,0 +1,477 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.model.TaskTombstone;
+import com.taskmanager.model.User;
+import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.TaskSpecifications;
+import com.taskmanager.repo.TaskTombstoneRepository;
+import com.taskmanager.security.PrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fans task changes out to the other instances of a horizontally scaled deployment through Postgres
+ * LISTEN/NOTIFY, so a client sees every change whichever node it is connected to. Enabled with
+ * app.taskRelay.enabled; a single instance doesn't need it.
+ *
+ * Sending: the task events and the stats delta of a transaction are sent with pg_notify on the same
+ * connection just before commit, so other nodes hear about a write exactly when it commits. Payloads
+ * are compact (ids only, views are re-read by the receiver) and split to stay under the 8000 byte limit.
+ *
+ * Receiving: one dedicated connection LISTENs on a background thread. Notifications that arrive
+ * together are handled as one batch: one query for the changed views, then the local
+ * TaskEventDispatcher, ListingVersions and TaskStatsService are updated. User writes are relayed too,
+ * so every node drops the user's cached principal and second-level cache entries. Notifications sent
+ * while the connection was down are lost, so after a reconnect the gap is caught up from updated_at and
+ * the tombstones, the stats are rebuilt and all cached users are dropped.
+ */
+@Component
+public class TaskEventRelay implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventRelay.class);
+
+    static final String CHANNEL = "task_events";
+    // Postgres rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    // an idle LISTEN connection is checked this often so a dead one is noticed
+    private static final long HEARTBEAT_MS = 10_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final int MAX_CATCH_UP_EVENTS = 5000;
+    private static final String USER_ROLES = User.class.getName() + ".roles";
+
+    private final JdbcTemplate jdbc;
+    private final DataSourceProperties dataSource;
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstones;
+    private final TaskEventDispatcher dispatcher;
+    private final ListingVersions versions;
+    private final TaskStatsService stats;
+    private final TaskDueScheduler dueScheduler;
+    private final PrincipalCache principalCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long catchUpMarginMs;
+    private final String nodeId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong notificationsSent = new AtomicLong();
+    private final AtomicLong notificationsReceived = new AtomicLong();
+    private final AtomicLong remoteEvents = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong catchUps = new AtomicLong();
+
+    private volatile Thread worker;
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection listenConnection;
+
+    public TaskEventRelay(JdbcTemplate jdbc, DataSourceProperties dataSource, TaskRepository taskRepository,
+                          TaskTombstoneRepository tombstones, TaskEventDispatcher dispatcher,
+                          ListingVersions versions, TaskStatsService stats, TaskDueScheduler dueScheduler,
+                          PrincipalCache principalCache, EntityManagerFactory entityManagerFactory,
+                          ObjectMapper objectMapper,
+                          @Value("${app.taskRelay.enabled:false}") boolean enabled,
+                          @Value("${app.taskRelay.catchUpMarginMs:5000}") long catchUpMarginMs) {
+        this.jdbc = jdbc;
+        this.dataSource = dataSource;
+        this.taskRepository = taskRepository;
+        this.tombstones = tombstones;
+        this.dispatcher = dispatcher;
+        this.versions = versions;
+        this.stats = stats;
+        this.dueScheduler = dueScheduler;
+        this.principalCache = principalCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.catchUpMarginMs = catchUpMarginMs;
+    }
+
+    // ---- sending ----
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        add(List.<Object[]>of(encode(event)));
+    }
+
+    @EventListener
+    public void onTaskBatch(TaskBatchEvent batch) {
+        add(batch.getEvents().stream().map(TaskEventRelay::encode).toList());
+    }
+
+    /** For task writes that don't publish task events (bulk import): other nodes only refresh versions and stats. */
+    public void bulkChanged() {
+        add(List.<Object[]>of(new Object[]{"B"}));
+    }
+
+    /**
+     * For writes to a user or their roles (alongside the local PrincipalCache eviction and
+     * ListingVersions bump): other nodes do the same and drop the user from their second-level cache.
+     */
+    public void userChanged(Long userId, String email) {
+        add(List.<Object[]>of(new Object[]{"P", userId, email}));
+    }
+
+    private void add(List<Object[]> entries) {
+        if (!enabled) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(entries, List.of(), 0);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> buffer = new ArrayList<>();
+            pending = buffer;
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // still inside the transaction: NOTIFY is delivered if and only if it commits
+                    send(buffer, stats.pendingDelta(), stats.pendingTxid());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskEventRelay.this);
+                }
+            });
+        }
+        pending.addAll(entries);
+    }
+
+    private void send(List<Object[]> entries, List<TaskStatsRow> delta, long txid) {
+        List<Object[]> all = new ArrayList<>(entries);
+        for (TaskStatsRow r : delta) {
+            all.add(new Object[]{"S", r.status(), r.priority(), r.assigneeId(), r.creatorId(),
+                    r.dueDate() == null ? null : r.dueDate().toString(), r.count()});
+        }
+        for (String payload : pack(all, txid)) {
+            jdbc.query("select pg_notify(?, ?)", rs -> {}, CHANNEL, payload);
+            notificationsSent.incrementAndGet();
+        }
+    }
+
+    /**
+     * Payload: {"n":node,"x":txid,"e":[entry,...]} where an entry is ["C",id], ["U",id] or ["U",id,[previousOwnerId,...]],
+     * ["D",id,assigneeId,creatorId], ["P",userId,email] (user change),
+     * ["S",status,priority,assigneeId,creatorId,dueDate,count] (stats delta) or ["B"] (bulk change).
+     */
+    private List<String> pack(List<Object[]> entries, long txid) {
+        String head = "{\"n\":\"" + nodeId + "\",\"x\":" + txid + ",\"e\":[";
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(head);
+        int bytes = head.length() + 2;
+        for (Object[] entry : entries) {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(entry);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            int size = json.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (current.length() > head.length() && bytes + size > MAX_PAYLOAD_BYTES) {
+                payloads.add(current.append("]}").toString());
+                current = new StringBuilder(head);
+                bytes = head.length() + 2;
+            }
+            if (current.length() > head.length()) current.append(',');
+            current.append(json);
+            bytes += size;
+        }
+        if (current.length() > head.length()) payloads.add(current.append("]}").toString());
+        return payloads;
+    }
+
+    private static Object[] encode(TaskEvent e) {
+        return switch (e.getType()) {
+            case CREATED -> new Object[]{"C", e.getTaskId()};
+            case UPDATED -> e.getPreviousOwnerIds().isEmpty() ? new Object[]{"U", e.getTaskId()}
+                    : new Object[]{"U", e.getTaskId(), e.getPreviousOwnerIds()};
+            case DELETED -> new Object[]{"D", e.getTaskId(), e.getAssigneeId(), e.getCreatorId()};
+        };
+    }
+
+    // ---- receiving ----
+
+    private void listenLoop() {
+        // notified rows were committed on the primary a moment ago; a replica may not have them yet
+        ReplicaRouting.pinToPrimary();
+        long backoff = 1000;
+        // last moment the connection was known to be listening; nothing committed before it was missed
+        long lastConfirmed = System.currentTimeMillis();
+        Instant lostAt = null;
+        while (running) {
+            try (Connection conn = openListenConnection()) {
+                listenConnection = conn;
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                lastConfirmed = System.currentTimeMillis();
+                if (lostAt != null) {
+                    reconnects.incrementAndGet();
+                    catchUp(lostAt);
+                    lostAt = null;
+                }
+                backoff = 1000;
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notes = pg.getNotifications(500);
+                    long now = System.currentTimeMillis();
+                    if (notes != null && notes.length > 0) {
+                        handle(notes);
+                        lastConfirmed = now;
+                    } else if (now - lastConfirmed > HEARTBEAT_MS) {
+                        try (Statement st = conn.createStatement()) {
+                            st.execute("SELECT 1");
+                        }
+                        lastConfirmed = now;
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                if (lostAt == null) lostAt = Instant.ofEpochMilli(lastConfirmed);
+                if (connected) logger.warn("Task relay connection lost, reconnecting: {}", e.getMessage());
+                connected = false;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            } finally {
+                connected = false;
+                listenConnection = null;
+            }
+        }
+    }
+
+    // outside the pool: a LISTEN connection is held for the life of the process
+    private Connection openListenConnection() throws SQLException {
+        Properties props = new Properties();
+        if (dataSource.determineUsername() != null) props.setProperty("user", dataSource.determineUsername());
+        if (dataSource.determinePassword() != null) props.setProperty("password", dataSource.determinePassword());
+        props.setProperty("ApplicationName", "task-relay-" + nodeId);
+        props.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(dataSource.determineUrl(), props);
+    }
+
+    private void handle(PGNotification[] notes) {
+        Map<Long, TaskEvent.Type> changed = new LinkedHashMap<>();
+        Map<Long, Set<Long>> previousOwners = new HashMap<>();
+        Map<Long, String> users = new LinkedHashMap<>();
+        List<TaskEvent> deleted = new ArrayList<>();
+        // stats deltas by the txid they were committed in
+        Map<Long, List<TaskStatsRow>> delta = new LinkedHashMap<>();
+        boolean any = false;
+        boolean bulk = false;
+        for (PGNotification note : notes) {
+            notificationsReceived.incrementAndGet();
+            JsonNode root;
+            try {
+                root = objectMapper.readTree(note.getParameter());
+            } catch (IOException e) {
+                logger.warn("Ignoring malformed task relay payload: {}", e.getMessage());
+                continue;
+            }
+            if (nodeId.equals(root.path("n").asText())) continue;
+            for (JsonNode e : root.path("e")) {
+                String kind = e.path(0).asText();
+                if ("P".equals(kind)) {
+                    users.put(longOrNull(e.path(1)), textOrNull(e.path(2)));
+                    continue;
+                }
+                any = true;
+                switch (kind) {
+                    // a task created and updated in one burst is still reported as CREATED
+                    case "C" -> changed.put(e.path(1).asLong(), TaskEvent.Type.CREATED);
+                    case "U" -> {
+                        changed.putIfAbsent(e.path(1).asLong(), TaskEvent.Type.UPDATED);
+                        for (JsonNode owner : e.path(2)) {
+                            previousOwners.computeIfAbsent(e.path(1).asLong(), k -> new HashSet<>()).add(owner.asLong());
+                        }
+                    }
+                    case "D" -> {
+                        changed.remove(e.path(1).asLong());
+                        deleted.add(new TaskEvent(TaskEvent.Type.DELETED, e.path(1).asLong(), null,
+                                longOrNull(e.path(2)), longOrNull(e.path(3))));
+                    }
+                    case "S" -> delta.computeIfAbsent(root.path("x").asLong(), k -> new ArrayList<>())
+                            .add(new TaskStatsRow(textOrNull(e.path(1)), textOrNull(e.path(2)),
+                                    longOrNull(e.path(3)), longOrNull(e.path(4)),
+                                    e.path(5).isNull() ? null : LocalDate.parse(e.path(5).asText()), e.path(6).asLong()));
+                    case "B" -> bulk = true;
+                    default -> { }
+                }
+            }
+        }
+        if (!users.isEmpty()) usersChanged(users);
+        if (!any) return;
+
+        List<TaskEvent> events = new ArrayList<>();
+        if (!changed.isEmpty()) {
+            // one query for the whole batch; a task deleted since is skipped, its delete follows
+            Map<Long, TaskView> views = taskRepository.findViews(TaskSpecifications.idIn(changed.keySet()), 0)
+                    .stream().collect(Collectors.toMap(TaskView::id, Function.identity()));
+            changed.forEach((id, type) -> {
+                TaskView v = views.get(id);
+                if (v != null) events.add(new TaskEvent(type, id, v, v.assigneeId(), v.creatorId(),
+                        previousOwners.getOrDefault(id, Set.of())));
+            });
+        }
+        events.addAll(deleted);
+        delta.forEach((txid, rows) -> stats.applyDelta(rows, txid));
+        versions.tasksChanged();
+        dueScheduler.apply(events);
+        if (bulk) dueScheduler.reload();
+        dispatcher.publishRemote(events);
+        remoteEvents.addAndGet(events.size());
+    }
+
+    private void usersChanged(Map<Long, String> users) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        users.forEach((id, email) -> {
+            principalCache.evict(email);
+            if (id != null) {
+                cache.evictEntityData(User.class, id);
+                cache.evictCollectionData(USER_ROLES, id);
+            }
+        });
+        // cached findByEmail results: the other node's write didn't invalidate them here
+        cache.evictDefaultQueryRegion();
+        versions.usersChanged();
+    }
+
+    /**
+     * Replays what other nodes committed since {@code lostAt} (less a margin for transactions that were
+     * still open and for clock skew) as UPDATED/DELETED events, then rebuilds the stats (deltas arriving
+     * meanwhile are reconciled against the rebuild's snapshot by txid, see TaskStatsService). Clients may get
+     * a few changes twice, which they already tolerate. Beyond MAX_CATCH_UP_EVENTS they are left to
+     * resync through /api/tasks/changes.
+     */
+    private void catchUp(Instant lostAt) {
+        Instant since = lostAt.minusMillis(catchUpMarginMs).truncatedTo(ChronoUnit.MICROS);
+        Instant until = Instant.now().plusSeconds(1);
+        List<TaskView> views = taskRepository.findChangedViews(
+                TaskSpecifications.updatedBetween(since, until), MAX_CATCH_UP_EVENTS + 1);
+        List<TaskTombstone> gone = tombstones.findByDeletedAtAfter(since);
+        if (views.size() + gone.size() <= MAX_CATCH_UP_EVENTS) {
+            List<TaskEvent> events = new ArrayList<>();
+            for (TaskView v : views) {
+                events.add(new TaskEvent(TaskEvent.Type.UPDATED, v.id(), v, v.assigneeId(), v.creatorId()));
+            }
+            for (TaskTombstone t : gone) {
+                events.add(new TaskEvent(TaskEvent.Type.DELETED, t.getTaskId(), null, t.getAssigneeId(), t.getCreatorId()));
+            }
+            remoteEvents.addAndGet(events.size());
+            dueScheduler.apply(events);
+            dispatcher.publishRemote(events);
+        } else {
+            dueScheduler.reload();
+            logger.warn("Task relay catch-up has more than {} changes; not replaying them as events", MAX_CATCH_UP_EVENTS);
+        }
+        stats.rebuild();
+        versions.tasksChanged();
+        // user changes in the gap are unknown: drop every cached user
+        principalCache.evictAll();
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(User.class);
+        cache.evictCollectionData(USER_ROLES);
+        cache.evictDefaultQueryRegion();
+        versions.usersChanged();
+        catchUps.incrementAndGet();
+        logger.info("Task relay reconnected, caught up {} changed and {} deleted tasks since {}",
+                views.size(), gone.size(), since);
+    }
+
+    private static Long longOrNull(JsonNode n) {
+        return n.isNull() || n.isMissingNode() ? null : n.asLong();
+    }
+
+    private static String textOrNull(JsonNode n) {
+        return n.isNull() || n.isMissingNode() ? null : n.asText();
+    }
+
+    public String getNodeId() { return nodeId; }
+    public boolean isConnected() { return connected; }
+    public long getNotificationsSentCount() { return notificationsSent.get(); }
+    public long getNotificationsReceivedCount() { return notificationsReceived.get(); }
+    public long getRemoteEventCount() { return remoteEvents.get(); }
+    public long getReconnectCount() { return reconnects.get(); }
+    public long getCatchUpCount() { return catchUps.get(); }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        worker = new Thread(this::listenLoop, "task-event-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+            Connection c = listenConnection;
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (SQLException ignored) {
+                    // closing anyway
+                }
+            }
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() { return running; }
+}
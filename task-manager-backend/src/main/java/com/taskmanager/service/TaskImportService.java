@@ -0,0 +1,179 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.taskmanager.dto.TaskImportProgress;
+import com.taskmanager.dto.TaskImportRow;
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk task import for onboarding. The upload is parsed row by row (NDJSON or CSV with a header),
+ * user emails are resolved against a map loaded with one query, and tasks are persisted in batches
+ * of app.import.batchSize, each in its own transaction: JDBC-batched inserts, then the persistence
+ * context is cleared, so memory is bounded by one batch.
+ *
+ * Unlike {@link TaskService#createTasks} no WebSocket events are published per task; stats and listing
+ * versions are updated per batch (and relayed to other instances). Rows that can't be imported (no title, unknown user) are counted and
+ * reported, the rest of the file goes on.
+ */
+@Service
+public class TaskImportService {
+    private static final Logger logger = LoggerFactory.getLogger(TaskImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserRepository userRepository;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final TaskStatsService stats;
+    private final ListingVersions versions;
+    private final TaskEventRelay relay;
+    private final TaskDueScheduler dueScheduler;
+    private final ObjectReader ndjsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    public TaskImportService(UserRepository userRepository, EntityManager em,
+                             PlatformTransactionManager transactionManager, TaskStatsService stats,
+                             ListingVersions versions, TaskEventRelay relay, TaskDueScheduler dueScheduler,
+                             ObjectMapper objectMapper,
+                             @Value("${app.import.batchSize:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.stats = stats;
+        this.versions = versions;
+        this.relay = relay;
+        this.dueScheduler = dueScheduler;
+        this.ndjsonReader = objectMapper.readerFor(TaskImportRow.class);
+        CsvMapper csv = new CsvMapper();
+        csv.findAndRegisterModules();
+        csv.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        csv.enable(CsvParser.Feature.TRIM_SPACES);
+        this.csvReader = csv.readerFor(TaskImportRow.class).with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every row of {@code in}, calling {@code progress} after each committed batch and once at the end.
+     * @param defaultCreatorId creator for rows that don't name one
+     */
+    public TaskImportProgress importTasks(InputStream in, TaskFileFormat format, Long defaultCreatorId,
+                                          Consumer<TaskImportProgress> progress) {
+        Map<String, Long> idsByEmail = new HashMap<>();
+        for (Object[] row : userRepository.findAllEmailIds()) {
+            idsByEmail.put(((String) row[0]).toLowerCase(Locale.ROOT), (Long) row[1]);
+        }
+        Set<Long> userIds = new HashSet<>(idsByEmail.values());
+
+        List<TaskImportRow> batch = new ArrayList<>(batchSize);
+        List<String> rowErrors = new ArrayList<>();
+        long rows = 0, imported = 0, failed = 0;
+        String error = null;
+
+        ObjectReader reader = format == TaskFileFormat.CSV ? csvReader : ndjsonReader;
+        try (MappingIterator<TaskImportRow> it = reader.readValues(in)) {
+            while (it.hasNextValue()) {
+                TaskImportRow row = it.nextValue();
+                rows++;
+                String problem = validate(row, idsByEmail, userIds);
+                if (problem != null) {
+                    failed++;
+                    if (rowErrors.size() < MAX_REPORTED_ERRORS) rowErrors.add("row " + rows + ": " + problem);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    imported += persist(batch, idsByEmail, defaultCreatorId);
+                    batch.clear();
+                    progress.accept(new TaskImportProgress(rows, imported, failed, false, null, null));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // malformed input: keep what was committed, report where it stopped
+            error = "Stopped after row " + rows + ": " + e.getMessage();
+            logger.warn("Task import stopped after row {}", rows, e);
+        }
+        if (!batch.isEmpty() && error == null) {
+            imported += persist(batch, idsByEmail, defaultCreatorId);
+        }
+        // imported rows publish no events: re-read the due-date window once instead
+        if (imported > 0) dueScheduler.reload();
+        TaskImportProgress result = new TaskImportProgress(rows, imported, failed, true, rowErrors, error);
+        logger.info("Task import finished: {} rows, {} imported, {} failed", rows, imported, failed);
+        progress.accept(result);
+        return result;
+    }
+
+    private static String validate(TaskImportRow row, Map<String, Long> idsByEmail, Set<Long> userIds) {
+        if (row.getTitle() == null || row.getTitle().isBlank()) return "title is required";
+        if (row.getAssigneeEmail() != null && !idsByEmail.containsKey(row.getAssigneeEmail().toLowerCase(Locale.ROOT))) {
+            return "unknown assignee " + row.getAssigneeEmail();
+        }
+        if (row.getCreatorEmail() != null && !idsByEmail.containsKey(row.getCreatorEmail().toLowerCase(Locale.ROOT))) {
+            return "unknown creator " + row.getCreatorEmail();
+        }
+        if (row.getAssigneeEmail() == null && row.getAssigneeId() != null && !userIds.contains(row.getAssigneeId())) {
+            return "unknown assignee id " + row.getAssigneeId();
+        }
+        if (row.getCreatorEmail() == null && row.getCreatorId() != null && !userIds.contains(row.getCreatorId())) {
+            return "unknown creator id " + row.getCreatorId();
+        }
+        return null;
+    }
+
+    private int persist(List<TaskImportRow> rows, Map<String, Long> idsByEmail, Long defaultCreatorId) {
+        tx.executeWithoutResult(status -> {
+            for (TaskImportRow row : rows) {
+                Task t = new Task();
+                t.setTitle(row.getTitle());
+                t.setDescription(row.getDescription());
+                t.setStatus(row.getStatus() == null ? "TODO" : row.getStatus());
+                t.setPriority(row.getPriority() == null ? "MEDIUM" : row.getPriority());
+                t.setDueDate(row.getDueDate());
+                Long assigneeId = userId(row.getAssigneeEmail(), row.getAssigneeId(), idsByEmail);
+                Long creatorId = userId(row.getCreatorEmail(), row.getCreatorId(), idsByEmail);
+                if (creatorId == null) creatorId = defaultCreatorId;
+                // references only: ids are known to exist, no user rows are loaded
+                if (assigneeId != null) t.setAssignee(em.getReference(User.class, assigneeId));
+                if (creatorId != null) t.setCreator(em.getReference(User.class, creatorId));
+                em.persist(t);
+                stats.recordChange(null, TaskStatsRow.of(t));
+            }
+            em.flush();
+            em.clear();
+            versions.tasksChanged();
+            relay.bulkChanged();
+        });
+        return rows.size();
+    }
+
+    private static Long userId(String email, Long id, Map<String, Long> idsByEmail) {
+        return email != null ? idsByEmail.get(email.toLowerCase(Locale.ROOT)) : id;
+    }
+}
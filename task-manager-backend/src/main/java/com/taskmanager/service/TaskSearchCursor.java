@@ -0,0 +1,42 @@
+package com.taskmanager.service;
+
+import com.taskmanager.repo.TaskRepositoryCustom.SearchHit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for search results, which are ordered by (rank desc, id desc).
+ * Same contract as {@link TaskCursor}: returned as {@code nextCursor}, passed back as {@code ?cursor=}.
+ */
+public final class TaskSearchCursor {
+    private final float rank;
+    private final Long id;
+
+    private TaskSearchCursor(float rank, Long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public float getRank() { return rank; }
+    public Long getId() { return id; }
+
+    public static String encode(SearchHit last) {
+        // Float.toString round-trips exactly, so the seek compares against the same real value
+        String raw = Float.toString(last.rank()) + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(SearchHit)}
+     */
+    public static TaskSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new TaskSearchCursor(Float.parseFloat(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
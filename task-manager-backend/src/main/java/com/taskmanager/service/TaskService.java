@@ -1,101 +1,404 @@
 package com.taskmanager.service;
 
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskBatchResult;
+import com.taskmanager.dto.TaskChanges;
 import com.taskmanager.dto.TaskDto;
+import com.taskmanager.dto.TaskEvent;
+import com.taskmanager.dto.TaskFilter;
+import com.taskmanager.dto.TaskPage;
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.dto.TaskView;
 import com.taskmanager.model.Task;
+import com.taskmanager.model.TaskTombstone;
 import com.taskmanager.model.User;
 import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.TaskRepositoryCustom.SearchHit;
+import com.taskmanager.repo.TaskSearchQuery;
+import com.taskmanager.repo.TaskSpecifications;
+import com.taskmanager.repo.TaskTombstoneRepository;
 import com.taskmanager.repo.UserRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher events;
+    private final TaskStatsService stats;
+    private final TaskTombstoneRepository tombstones;
+    private final Duration settle;
+    private final Duration tombstoneRetention;
 
     public TaskService(TaskRepository taskRepository,
                        UserRepository userRepository,
-                       SimpMessagingTemplate messagingTemplate) {
+                       ApplicationEventPublisher events,
+                       TaskStatsService stats,
+                       TaskTombstoneRepository tombstones,
+                       @Value("${app.taskChanges.settleMs:2000}") long settleMs,
+                       @Value("${app.taskChanges.tombstoneRetentionDays:30}") long tombstoneRetentionDays) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.events = events;
+        this.stats = stats;
+        this.tombstones = tombstones;
+        this.settle = Duration.ofMillis(settleMs);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
     }
 
     /**
      * Helper save - wraps repository.save so controllers can reuse.
+     * Change events are broadcast by TaskEventDispatcher once the transaction commits.
      */
+    @Transactional
     public Task save(Task t) {
-        return taskRepository.save(t);
+        // the managed copy still holds the stored state; save() merges t into it afterwards
+        TaskStatsRow before = t.getId() == null ? null
+                : taskRepository.findById(t.getId()).map(TaskStatsRow::of).orElse(null);
+        // flushed so the event carries the bumped version and updated_at
+        Task saved = taskRepository.saveAndFlush(t);
+        stats.recordChange(before, TaskStatsRow.of(saved));
+        events.publishEvent(TaskEvent.updated(saved, before));
+        return saved;
     }
 
+    @Transactional
     public Task createTask(TaskDto dto, Long creatorId) {
+        Task t = newTask(dto, creatorId, id -> userRepository.findById(id).orElse(null));
+        Task saved = taskRepository.save(t);
+        stats.recordChange(null, TaskStatsRow.of(saved));
+        events.publishEvent(TaskEvent.created(saved));
+        return saved;
+    }
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Creates all tasks in one transaction. Referenced users are loaded with a single query and the
+     * inserts go out as JDBC batches (sequence ids, hibernate.jdbc.batch_size). One event for the whole batch.
+     *
+     * @param creatorId default creator for every task
+     * @param allowCreatorOverride whether a dto's creatorId may replace the default (admins only)
+     */
+    @Transactional
+    public List<Task> createTasks(List<TaskDto> dtos, Long creatorId, boolean allowCreatorOverride) {
+        Set<Long> userIds = new HashSet<>();
+        if (creatorId != null) userIds.add(creatorId);
+        for (TaskDto dto : dtos) {
+            if (dto.getAssigneeId() != null) userIds.add(dto.getAssigneeId());
+            if (allowCreatorOverride && dto.getCreatorId() != null) userIds.add(dto.getCreatorId());
+        }
+        Map<Long, User> users = usersById(userIds);
+
+        List<Task> tasks = new ArrayList<>(dtos.size());
+        for (TaskDto dto : dtos) {
+            Long creator = allowCreatorOverride && dto.getCreatorId() != null ? dto.getCreatorId() : creatorId;
+            tasks.add(newTask(dto, creator, users::get));
+        }
+        List<Task> saved = taskRepository.saveAll(tasks);
+        saved.forEach(t -> stats.recordChange(null, TaskStatsRow.of(t)));
+        events.publishEvent(new TaskBatchEvent(saved.stream().map(TaskEvent::created).toList()));
+        return saved;
+    }
+
+    /**
+     * Batch form of {@link #updateTask}: tasks and referenced users are each loaded with one query,
+     * updates are flushed as JDBC batches at commit. Unknown ids are reported as skipped.
+     */
+    @Transactional
+    public TaskBatchResult updateTasks(List<TaskDto> dtos) {
+        Map<Long, Task> tasks = tasksById(dtos);
+        Map<Long, User> users = usersById(dtos.stream().map(TaskDto::getAssigneeId)
+                .filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        List<Task> updated = new ArrayList<>();
+        Map<Task, TaskStatsRow> previous = new IdentityHashMap<>();
+        List<Long> skipped = new ArrayList<>();
+        for (TaskDto dto : dtos) {
+            Task t = dto.getId() == null ? null : tasks.get(dto.getId());
+            if (t == null) {
+                skipped.add(dto.getId());
+                continue;
+            }
+            TaskStatsRow before = TaskStatsRow.of(t);
+            applyUpdate(t, dto, users::get);
+            stats.recordChange(before, TaskStatsRow.of(t));
+            updated.add(t);
+            previous.put(t, before);
+        }
+        // version and updated_at are bumped at flush: flush first so events and the result carry them
+        taskRepository.flush();
+        events.publishEvent(new TaskBatchEvent(updated.stream().map(t -> TaskEvent.updated(t, previous.get(t))).toList()));
+        return new TaskBatchResult(updated.stream().map(TaskView::of).toList(), skipped);
+    }
+
+    /**
+     * Batch status change. Non-admin callers may only change tasks they are assignee or creator of;
+     * everything else is reported as skipped.
+     */
+    @Transactional
+    public TaskBatchResult updateStatuses(List<TaskDto> dtos, Long userId, boolean admin) {
+        Map<Long, Task> tasks = tasksById(dtos);
+        List<Task> updated = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (TaskDto dto : dtos) {
+            Task t = dto.getId() == null ? null : tasks.get(dto.getId());
+            if (t == null || dto.getStatus() == null || !(admin || isOwner(t, userId))) {
+                skipped.add(dto.getId());
+                continue;
+            }
+            TaskStatsRow before = TaskStatsRow.of(t);
+            t.setStatus(dto.getStatus());
+            stats.recordChange(before, TaskStatsRow.of(t));
+            updated.add(t);
+        }
+        // version and updated_at are bumped at flush: flush first so events and the result carry them
+        taskRepository.flush();
+        events.publishEvent(new TaskBatchEvent(updated.stream().map(TaskEvent::updated).toList()));
+        return new TaskBatchResult(updated.stream().map(TaskView::of).toList(), skipped);
+    }
+
+    private static boolean isOwner(Task t, Long userId) {
+        return (t.getAssignee() != null && t.getAssignee().getId().equals(userId)) ||
+               (t.getCreator() != null && t.getCreator().getId().equals(userId));
+    }
+
+    private Map<Long, Task> tasksById(List<TaskDto> dtos) {
+        Set<Long> ids = dtos.stream().map(TaskDto::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        return taskRepository.findAllById(ids).stream().collect(Collectors.toMap(Task::getId, t -> t));
+    }
+
+    private Map<Long, User> usersById(Set<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+        return userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, u -> u));
+    }
+
+    private static Task newTask(TaskDto dto, Long creatorId, Function<Long, User> users) {
         Task t = new Task();
         t.setTitle(dto.getTitle());
         t.setDescription(dto.getDescription());
         t.setStatus(dto.getStatus() == null ? "TODO" : dto.getStatus());
         t.setPriority(dto.getPriority() == null ? "MEDIUM" : dto.getPriority());
         if (dto.getAssigneeId() != null) {
-            userRepository.findById(dto.getAssigneeId()).ifPresent(t::setAssignee);
+            t.setAssignee(users.apply(dto.getAssigneeId()));
         }
         if (creatorId != null) {
-            userRepository.findById(creatorId).ifPresent(t::setCreator);
+            t.setCreator(users.apply(creatorId));
         }
         t.setDueDate(dto.getDueDate());
-        Task saved = taskRepository.save(t);
-        try {
-            messagingTemplate.convertAndSend("/topic/tasks", saved);
-        } catch (Exception ex) {
-            // don't let WebSocket failure break the operation
-            System.err.println("Warning: websocket broadcast failed: " + ex.getMessage());
+        return t;
+    }
+
+    private static void applyUpdate(Task t, TaskDto dto, Function<Long, User> users) {
+        if (dto.getTitle() != null) t.setTitle(dto.getTitle());
+        if (dto.getDescription() != null) t.setDescription(dto.getDescription());
+        if (dto.getStatus() != null) t.setStatus(dto.getStatus());
+        if (dto.getPriority() != null) t.setPriority(dto.getPriority());
+        if (dto.getAssigneeId() != null) {
+            User assignee = users.apply(dto.getAssigneeId());
+            if (assignee != null) t.setAssignee(assignee);
         }
-        return saved;
+        t.setDueDate(dto.getDueDate());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskView> listAll() {
+        return listFiltered(new TaskFilter());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskView> listByUserId(Long userId) {
+        // Tasks where user is assignee or creator - one OR query, rows come back distinct
+        return listFiltered(TaskFilter.forUser(userId));
     }
 
-    public List<Task> listAll() {
-        return taskRepository.findAll();
+    // Lists return read-model views straight from one query - no entities, no user graphs
+    @Transactional(readOnly = true)
+    public List<TaskView> listFiltered(TaskFilter filter) {
+        return taskRepository.findViews(TaskSpecifications.matching(filter), 0);
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Keyset page of tasks matching the filter, newest first.
+     * Throws IllegalArgumentException for a malformed cursor.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage listPage(TaskFilter filter, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Specification<Task> spec = TaskSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            TaskCursor c = TaskCursor.decode(cursor);
+            spec = spec.and(TaskSpecifications.after(c.getCreatedAt(), c.getId()));
+        }
+        // fetch one extra row to know whether another page exists
+        List<TaskView> rows = taskRepository.findViews(spec, size + 1);
+        if (rows.size() <= size) {
+            return new TaskPage(rows, null);
+        }
+        List<TaskView> items = rows.subList(0, size);
+        return new TaskPage(items, TaskCursor.encode(items.get(size - 1)));
     }
 
-    public List<Task> listByUserId(Long userId) {
-        // Show tasks where user is assignee or creator (avoid duplicates)
-        List<Task> assigned = taskRepository.findByAssigneeId(userId);
-        List<Task> created = taskRepository.findByCreatorId(userId);
-        List<Task> merged = new ArrayList<>(assigned);
-        for (Task t : created) {
-            if (!merged.contains(t)) merged.add(t);
+    /**
+     * Full-text search over title and description, prefix-matching every word, best match first.
+     * Keyset-paged like {@link #listPage}; userId restricts to the user's tasks (null = all).
+     * Throws IllegalArgumentException for a malformed cursor.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage search(String text, Long userId, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String tsQuery = TaskSearchQuery.prefixQuery(text);
+        if (tsQuery == null) return new TaskPage(List.of(), null);
+        SearchHit after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            TaskSearchCursor c = TaskSearchCursor.decode(cursor);
+            after = new SearchHit(c.getId(), c.getRank());
         }
-        return merged;
+        List<SearchHit> hits = taskRepository.search(tsQuery, userId, after, size + 1);
+        boolean more = hits.size() > size;
+        if (more) hits = hits.subList(0, size);
+        if (hits.isEmpty()) return new TaskPage(List.of(), null);
+
+        // views for this page only, put back into rank order
+        Map<Long, TaskView> views = taskRepository.findViews(
+                TaskSpecifications.idIn(hits.stream().map(SearchHit::id).toList()), 0)
+                .stream().collect(Collectors.toMap(TaskView::id, v -> v));
+        List<TaskView> items = hits.stream().map(h -> views.get(h.id())).filter(Objects::nonNull).toList();
+        return new TaskPage(items, more ? TaskSearchCursor.encode(hits.get(size - 1)) : null);
+    }
+
+    /**
+     * Tasks changed and deleted after {@code since}, oldest first, for clients resyncing after a disconnect.
+     * Only changes older than the settle delay are returned, so a transaction that commits late with an
+     * earlier updated_at can't slip behind a watermark the client already has. Pages end on a timestamp
+     * boundary; the returned watermark is safe to pass back as the next {@code since}.
+     *
+     * @param userId only tasks the user is assignee or creator of; null for all
+     */
+    // not readOnly: served by the primary, a lagging replica could hide rows older than the watermark
+    @Transactional
+    public TaskChanges changesSince(Instant since, Long userId, Integer limit) {
+        Instant now = Instant.now();
+        if (since.isBefore(now.minus(tombstoneRetention))) return TaskChanges.resyncRequired();
+        Instant upTo = now.minus(settle).truncatedTo(ChronoUnit.MICROS);
+        if (!since.isBefore(upTo)) return new TaskChanges(List.of(), List.of(), since, false, false);
+
+        int size = limit == null ? MAX_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TaskFilter filter = new TaskFilter();
+        filter.setUserId(userId);
+        Specification<Task> spec = TaskSpecifications.matching(filter)
+                .and(TaskSpecifications.updatedBetween(since, upTo));
+        List<TaskView> rows = taskRepository.findChangedViews(spec, size + 1);
+
+        Instant watermark = upTo;
+        boolean more = rows.size() > size;
+        if (more) {
+            // drop the rows sharing a timestamp with the first row that didn't fit, they come next time
+            Instant cut = rows.get(size).updatedAt();
+            int end = size;
+            while (end > 0 && rows.get(end - 1).updatedAt().equals(cut)) end--;
+            if (end == 0) {
+                // a whole page written in the same microsecond: return that group in full
+                rows = taskRepository.findChangedViews(spec.and(TaskSpecifications.updatedBetween(since, cut)), 0);
+                watermark = cut;
+            } else {
+                rows = rows.subList(0, end);
+                watermark = rows.get(end - 1).updatedAt();
+            }
+        }
+        List<Long> deleted = userId == null
+                ? tombstones.findDeletedIds(since, watermark)
+                : tombstones.findDeletedIdsForUser(since, watermark, userId);
+        return new TaskChanges(rows, deleted, watermark, more, false);
+    }
+
+    // Clients with an older watermark get resync=true from changesSince, so these are never needed again
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void purgeTombstones() {
+        tombstones.deleteOlderThan(Instant.now().minus(tombstoneRetention));
     }
 
     public Optional<Task> findById(Long id) {
         return taskRepository.findById(id);
     }
 
-    public Task updateTask(Long id, TaskDto dto) throws Exception {
+    @Transactional(readOnly = true)
+    public Optional<TaskView> findViewById(Long id) {
+        return taskRepository.findViews(TaskSpecifications.withId(id), 1).stream().findFirst();
+    }
+
+    /**
+     * @param expectedVersion version from If-Match, null for an unconditional update. A concurrent
+     *        update that commits first still makes this one fail at flush (optimistic lock).
+     */
+    @Transactional
+    public Task updateTask(Long id, TaskDto dto, Long expectedVersion) throws Exception {
         Task t = taskRepository.findById(id).orElseThrow(() -> new Exception("Task not found"));
-        if (dto.getTitle() != null) t.setTitle(dto.getTitle());
-        if (dto.getDescription() != null) t.setDescription(dto.getDescription());
-        if (dto.getStatus() != null) t.setStatus(dto.getStatus());
-        if (dto.getPriority() != null) t.setPriority(dto.getPriority());
-        if (dto.getAssigneeId() != null) {
-            userRepository.findById(dto.getAssigneeId()).ifPresent(t::setAssignee);
-        }
-        t.setDueDate(dto.getDueDate());
-        Task updated = taskRepository.save(t);
-        try {
-            messagingTemplate.convertAndSend("/topic/tasks", updated);
-        } catch (Exception ex) {
-            System.err.println("Warning: websocket broadcast failed: " + ex.getMessage());
+        if (expectedVersion != null && t.getVersion() != expectedVersion) {
+            throw new StaleTaskVersionException(t.getVersion());
         }
+        TaskStatsRow before = TaskStatsRow.of(t);
+        applyUpdate(t, dto, uid -> userRepository.findById(uid).orElse(null));
+        Task updated = taskRepository.saveAndFlush(t);
+        stats.recordChange(before, TaskStatsRow.of(updated));
+        events.publishEvent(TaskEvent.updated(updated, before));
         return updated;
     }
 
+    /**
+     * Status change for the task's assignee or creator as a single guarded UPDATE ... RETURNING:
+     * no entity is loaded and only the status, version and updated_at columns are written.
+     * @param expectedVersion version from If-Match, null for unconditional
+     * @return the updated task; empty if it doesn't exist, the user doesn't own it or the version is stale
+     */
+    @Transactional
+    public Optional<TaskView> updateStatus(Long id, String status, Long userId, Long expectedVersion) {
+        return taskRepository.updateStatusIfOwner(id, status, userId, expectedVersion).map(update -> {
+            TaskView v = update.task();
+            stats.recordChange(
+                    new TaskStatsRow(update.previousStatus(), v.priority(), v.assigneeId(), v.creatorId(), v.dueDate(), 1L),
+                    new TaskStatsRow(v.status(), v.priority(), v.assigneeId(), v.creatorId(), v.dueDate(), 1L));
+            events.publishEvent(new TaskEvent(TaskEvent.Type.UPDATED, v.id(), v, v.assigneeId(), v.creatorId()));
+            return v;
+        });
+    }
+
+    @Transactional
     public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+        // load first: the delete event needs assignee/creator to know who to notify
+        taskRepository.findById(id).ifPresent(t -> {
+            taskRepository.delete(t);
+            tombstones.save(new TaskTombstone(t.getId(),
+                    t.getAssignee() == null ? null : t.getAssignee().getId(),
+                    t.getCreator() == null ? null : t.getCreator().getId(),
+                    Instant.now().truncatedTo(ChronoUnit.MICROS)));
+            stats.recordChange(TaskStatsRow.of(t), null);
+            events.publishEvent(TaskEvent.deleted(t));
+        });
     }
 }
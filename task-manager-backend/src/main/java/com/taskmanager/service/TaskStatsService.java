@@ -0,0 +1,309 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskStats;
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.repo.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory task counters behind /api/tasks/stats: totals by status, priority and assignee plus
+ * overdue, globally and per user (tasks the user is assignee or creator of).
+ *
+ * Built from one aggregate query at startup, then kept current by TaskService, which reports each
+ * task's before/after state. A transaction's changes are applied together under one lock after it
+ * commits, so readers never see half a batch and rolled-back writes never count.
+ *
+ * Each delta (local or relayed from another instance) carries the Postgres txid of its transaction,
+ * and a rebuild reads the aggregate together with its snapshot. Local transactions only look their txid
+ * up when it is needed: the relay ships their delta, or a rebuild is in progress. Deltas of transactions the snapshot
+ * already saw are skipped, and those applied while a rebuild runs are replayed onto the new counters,
+ * so a rebuild next to live traffic neither loses nor double-counts a write.
+ */
+@Service
+public class TaskStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatsService.class);
+
+    static final String DONE = "DONE";
+    private static final String UNSET = "UNSET";
+
+    private final TaskRepository taskRepository;
+    // the aggregate and the snapshot it was read at come from one transaction
+    private final TransactionTemplate snapshotTx;
+    private final Object rebuildLock = new Object();
+
+    private Counts global = new Counts(LocalDate.now());
+    private Map<Long, Counts> perUser = new HashMap<>();
+    // snapshot the counters were built from, null before the first rebuild
+    private TxSnapshot base;
+    // deltas applied while a rebuild runs, null otherwise
+    private List<Delta> duringRebuild;
+
+    public TaskStatsService(TaskRepository taskRepository, PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                duringRebuild = new ArrayList<>();
+            }
+            try {
+                rebuildCounts();
+            } finally {
+                synchronized (this) {
+                    duringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private void rebuildCounts() {
+        LocalDate today = LocalDate.now();
+        Counts newGlobal = new Counts(today);
+        Map<Long, Counts> newPerUser = new HashMap<>();
+        // from the primary: the snapshot must decide about every delta that arrives from now on
+        Aggregate aggregate = ReplicaRouting.onPrimary(() -> snapshotTx.execute(status ->
+                new Aggregate(TxSnapshot.parse(taskRepository.currentSnapshot()), taskRepository.aggregateStats())));
+        for (TaskStatsRow row : aggregate.rows) {
+            add(newGlobal, newPerUser, row, 1);
+        }
+        int replayed = 0;
+        synchronized (this) {
+            global = newGlobal;
+            perUser = newPerUser;
+            base = aggregate.snapshot;
+            for (Delta d : duringRebuild) {
+                if (!base.includes(d.txid)) {
+                    for (TaskStatsRow row : d.rows) add(global, perUser, row, 1);
+                    replayed++;
+                }
+            }
+        }
+        logger.info("Task stats rebuilt: {} tasks from {} aggregate rows, {} concurrent deltas replayed",
+                newGlobal.total, aggregate.rows.size(), replayed);
+    }
+
+    /**
+     * Records that a task changed from {@code before} to {@code after} (null for create/delete).
+     * Applied when the current transaction commits, or right away outside a transaction.
+     */
+    public void recordChange(TaskStatsRow before, TaskStatsRow after) {
+        if (Objects.equals(before, after)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(new Delta(0, net(List.of(new Change(before, after)))));
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending p = new Pending();
+            pending = p;
+            TransactionSynchronizationManager.bindResource(this, p);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // the txid costs a round trip: only needed to reconcile with a rebuild, or when the
+                    // relay ships the delta (it asks through pendingTxid())
+                    if (rebuildPending()) txid(p);
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply(new Delta(p.txid, net(p.changes)));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskStatsService.this);
+                }
+            });
+        }
+        pending.changes.add(new Change(before, after));
+    }
+
+    /**
+     * The changes recorded so far in the current transaction, netted into rows with signed counts
+     * (a task moving TODO to DONE is -1 TODO, +1 DONE). Empty outside a transaction.
+     * Used by TaskEventRelay to ship the delta to other instances.
+     */
+    public List<TaskStatsRow> pendingDelta() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        return pending == null ? List.of() : net(pending.changes);
+    }
+
+    /** Txid of the current transaction if it recorded changes (sent along with {@link #pendingDelta()}), else 0. */
+    public long pendingTxid() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        return pending == null ? 0 : txid(pending);
+    }
+
+    // a rebuild is running, or the first one hasn't finished yet
+    private synchronized boolean rebuildPending() {
+        return duringRebuild != null || base == null;
+    }
+
+    private long txid(Pending pending) {
+        if (pending.txid == 0) pending.txid = taskRepository.currentTxid();
+        return pending.txid;
+    }
+
+    private static List<TaskStatsRow> net(List<Change> changes) {
+        Map<TaskStatsRow, Long> net = new HashMap<>();
+        for (Change c : changes) {
+            if (c.before != null) net.merge(key(c.before), -c.before.count(), Long::sum);
+            if (c.after != null) net.merge(key(c.after), c.after.count(), Long::sum);
+        }
+        List<TaskStatsRow> delta = new ArrayList<>();
+        net.forEach((k, n) -> {
+            if (n != 0) delta.add(new TaskStatsRow(k.status(), k.priority(), k.assigneeId(), k.creatorId(), k.dueDate(), n));
+        });
+        return delta;
+    }
+
+    /**
+     * Applies a delta committed on another instance (signed counts, see {@link #pendingDelta()}).
+     * @param txid the transaction it was committed in, 0 if unknown
+     */
+    public void applyDelta(List<TaskStatsRow> delta, long txid) {
+        apply(new Delta(txid, delta));
+    }
+
+    private static TaskStatsRow key(TaskStatsRow row) {
+        return new TaskStatsRow(row.status(), row.priority(), row.assigneeId(), row.creatorId(), row.dueDate(), 0L);
+    }
+
+    public TaskStats global() {
+        return global(LocalDate.now());
+    }
+
+    public TaskStats forUser(Long userId) {
+        return forUser(userId, LocalDate.now());
+    }
+
+    /** As of {@code date}: overdue counts roll forward to it (never back). */
+    synchronized TaskStats global(LocalDate date) {
+        return global.toStats(date);
+    }
+
+    synchronized TaskStats forUser(Long userId, LocalDate date) {
+        Counts c = perUser.getOrDefault(userId, new Counts(date));
+        return c.toStats(date);
+    }
+
+    private synchronized void apply(Delta delta) {
+        if (duringRebuild != null) duringRebuild.add(delta);
+        // already in the aggregate the counters were built from
+        if (base != null && base.includes(delta.txid)) return;
+        for (TaskStatsRow row : delta.rows) add(global, perUser, row, 1);
+    }
+
+    private static void add(Counts global, Map<Long, Counts> perUser, TaskStatsRow row, int sign) {
+        global.add(row, sign);
+        if (row.assigneeId() != null) {
+            perUser.computeIfAbsent(row.assigneeId(), id -> new Counts(global.today)).add(row, sign);
+        }
+        if (row.creatorId() != null && !row.creatorId().equals(row.assigneeId())) {
+            perUser.computeIfAbsent(row.creatorId(), id -> new Counts(global.today)).add(row, sign);
+        }
+    }
+
+    private record Change(TaskStatsRow before, TaskStatsRow after) {}
+
+    private static final class Pending {
+        final List<Change> changes = new ArrayList<>();
+        long txid;
+    }
+
+    /** Signed rows committed together in transaction {@code txid} (0: unknown, never skipped). */
+    private record Delta(long txid, List<TaskStatsRow> rows) {}
+
+    private record Aggregate(TxSnapshot snapshot, List<TaskStatsRow> rows) {}
+
+    /** A txid_current_snapshot() value: which transactions had committed when it was taken. */
+    record TxSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+
+        static TxSnapshot parse(String text) {
+            String[] parts = text.split(":", -1);
+            Set<Long> xip = parts[2].isEmpty() ? Set.of()
+                    : Arrays.stream(parts[2].split(",")).map(Long::valueOf).collect(Collectors.toSet());
+            return new TxSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), xip);
+        }
+
+        boolean includes(long txid) {
+            if (txid == 0) return false;
+            return txid < xmin || (txid < xmax && !inProgress.contains(txid));
+        }
+    }
+
+    /**
+     * One set of counters. Open tasks are also counted per due date; overdue is the sum of the dates
+     * before {@code today} and is rolled forward when the date changes, so reads stay cheap.
+     */
+    private static final class Counts {
+        long total;
+        final Map<String, Long> byStatus = new HashMap<>();
+        final Map<String, Long> byPriority = new HashMap<>();
+        final Map<Long, Long> byAssignee = new HashMap<>();
+        long unassigned;
+        final TreeMap<LocalDate, Long> openByDueDate = new TreeMap<>();
+        long overdue;
+        LocalDate today;
+
+        Counts(LocalDate today) {
+            this.today = today;
+        }
+
+        void add(TaskStatsRow row, int sign) {
+            long n = sign * row.count();
+            total += n;
+            bump(byStatus, row.status() == null ? UNSET : row.status(), n);
+            bump(byPriority, row.priority() == null ? UNSET : row.priority(), n);
+            if (row.assigneeId() == null) unassigned += n;
+            else bump(byAssignee, row.assigneeId(), n);
+            if (row.dueDate() != null && !DONE.equals(row.status())) {
+                bump(openByDueDate, row.dueDate(), n);
+                if (row.dueDate().isBefore(today)) overdue += n;
+            }
+        }
+
+        void rollTo(LocalDate date) {
+            if (!date.isAfter(today)) return;
+            for (long n : openByDueDate.subMap(today, true, date, false).values()) overdue += n;
+            today = date;
+        }
+
+        TaskStats toStats(LocalDate date) {
+            rollTo(date);
+            return new TaskStats(total, new HashMap<>(byStatus), new HashMap<>(byPriority),
+                    new HashMap<>(byAssignee), unassigned, overdue, today);
+        }
+
+        private static <K> void bump(Map<K, Long> map, K key, long n) {
+            map.merge(key, n, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+}
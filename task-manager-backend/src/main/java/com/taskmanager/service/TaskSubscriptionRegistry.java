@@ -0,0 +1,120 @@
+package com.taskmanager.service;
+
+import com.taskmanager.security.AuthUser;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of who is currently subscribed to /user/queue/tasks, keyed by user id.
+ * Lets the dispatcher send each change only to the assignee, the creator and admins - and skip
+ * users with no open subscription without touching the broker at all.
+ */
+@Component
+public class TaskSubscriptionRegistry {
+
+    public static final String USER_QUEUE = "/queue/tasks";
+    private static final String SUBSCRIBE_DESTINATION = "/user" + USER_QUEUE;
+
+    /** An online subscriber: principal name is what convertAndSendToUser routes on. */
+    public record Subscriber(Long userId, String principalName, boolean admin) {}
+
+    // sessionId -> (subscriptionId -> subscriber)
+    private final Map<String, Map<String, Subscriber>> bySession = new ConcurrentHashMap<>();
+    // userId -> sessionIds with at least one task subscription
+    private final Map<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Subscriber> admins = new ConcurrentHashMap<>();
+    private final Map<Long, Subscriber> users = new ConcurrentHashMap<>();
+    private final Set<String> connected = ConcurrentHashMap.newKeySet();
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) connected.add(sessionId);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor h = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        AuthUser user = authUser(event);
+        if (user == null || !SUBSCRIBE_DESTINATION.equals(h.getDestination())) return;
+        Subscriber s = new Subscriber(user.getId(), event.getUser().getName(), user.isAdmin());
+        synchronized (this) {
+            bySession.computeIfAbsent(h.getSessionId(), k -> new ConcurrentHashMap<>()).put(h.getSubscriptionId(), s);
+            sessionsByUser.computeIfAbsent(s.userId(), k -> ConcurrentHashMap.newKeySet()).add(h.getSessionId());
+            users.put(s.userId(), s);
+            if (s.admin()) admins.put(s.userId(), s);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor h = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Map<String, Subscriber> subs = bySession.get(h.getSessionId());
+            if (subs == null) return;
+            Subscriber s = subs.remove(h.getSubscriptionId());
+            if (subs.isEmpty()) bySession.remove(h.getSessionId());
+            if (s != null && subs.isEmpty()) dropSession(s.userId(), h.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        connected.remove(event.getSessionId());
+        synchronized (this) {
+            Map<String, Subscriber> subs = bySession.remove(event.getSessionId());
+            if (subs == null) return;
+            subs.values().stream().map(Subscriber::userId).distinct()
+                    .forEach(uid -> dropSession(uid, event.getSessionId()));
+        }
+    }
+
+    private void dropSession(Long userId, String sessionId) {
+        Set<String> sessions = sessionsByUser.get(userId);
+        if (sessions == null) return;
+        sessions.remove(sessionId);
+        if (sessions.isEmpty()) {
+            sessionsByUser.remove(userId);
+            users.remove(userId);
+            admins.remove(userId);
+        }
+    }
+
+    /** The subscriber for this user id, or null if the user has no open task subscription. */
+    public Subscriber find(Long userId) {
+        return userId == null ? null : users.get(userId);
+    }
+
+    public Collection<Subscriber> admins() {
+        return admins.values();
+    }
+
+    /** Sessions with at least one task subscription. */
+    public int subscribedSessionCount() {
+        return bySession.size();
+    }
+
+    /** All open STOMP sessions. */
+    public int connectedSessionCount() {
+        return connected.size();
+    }
+
+    private static AuthUser authUser(AbstractSubProtocolEvent event) {
+        Principal p = event.getUser();
+        if (p instanceof Authentication a && a.getPrincipal() instanceof AuthUser u) return u;
+        return null;
+    }
+}
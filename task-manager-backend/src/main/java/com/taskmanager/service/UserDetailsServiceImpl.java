@@ -1,14 +1,13 @@
 package com.taskmanager.service;
 
+import com.taskmanager.model.Role;
 import com.taskmanager.model.User;
 import com.taskmanager.repo.UserRepository;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.taskmanager.security.AuthUser;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -19,9 +18,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User u = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + email));
-        List<GrantedAuthority> authorities = u.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
-        return new org.springframework.security.core.userdetails.User(u.getEmail(), u.getPassword(), authorities);
+        List<String> roles = u.getRoles().stream().map(Role::getName).toList();
+        return new AuthUser(u.getId(), u.getEmail(), u.getPassword(), roles);
     }
 }
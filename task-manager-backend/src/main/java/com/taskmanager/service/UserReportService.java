@@ -0,0 +1,121 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Builds the admin "users with tasks" report with three queries in total, no matter how many users exist:
+ * users (+roles), task views ordered by assignee, task views ordered by creator.
+ * All three are streamed from database cursors: the two task streams are merge-joined against the
+ * id-ordered user rows and written straight to the response, so memory stays flat however many users
+ * and tasks there are. Users are read as scalar rows and tasks as TaskView rows, so nothing enters the
+ * persistence context.
+ *
+ * Output shape is the same as a List of {@link com.taskmanager.dto.UserWithTasksDto}.
+ */
+@Service
+public class UserReportService {
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+
+    public UserReportService(UserRepository userRepository, TaskRepository taskRepository,
+                             ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeUsersWithTasks(OutputStream out) throws IOException {
+        try (Stream<Object[]> users = userRepository.streamWithRolesOrderById();
+             Stream<TaskView> byAssignee = taskRepository.streamViewsOrderByAssignee();
+             Stream<TaskView> byCreator = taskRepository.streamViewsOrderByCreator();
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+
+            PeekingIterator<Object[]> userRows = new PeekingIterator<>(users.iterator());
+            PeekingIterator<TaskView> assigned = new PeekingIterator<>(byAssignee.iterator());
+            PeekingIterator<TaskView> created = new PeekingIterator<>(byCreator.iterator());
+
+            gen.writeStartArray();
+            while (userRows.hasNext()) {
+                // one row per role: the user's columns repeat until the id changes
+                Object[] row = userRows.next();
+                Long userId = (Long) row[0];
+                gen.writeStartObject();
+                gen.writeNumberField("id", userId);
+                gen.writeStringField("fullName", (String) row[1]);
+                gen.writeStringField("email", (String) row[2]);
+                gen.writeArrayFieldStart("roles");
+                writeRole(gen, row);
+                while (userRows.hasNext() && userId.equals(userRows.peek()[0])) {
+                    writeRole(gen, userRows.next());
+                }
+                gen.writeEndArray();
+
+                gen.writeArrayFieldStart("assignedTasks");
+                while (assigned.hasNext()) {
+                    int cmp = Long.compare(assigned.peek().assigneeId(), userId);
+                    if (cmp > 0) break;
+                    // cmp < 0: user committed after our user query - not part of this report
+                    TaskView t = assigned.next();
+                    if (cmp == 0) objectMapper.writeValue(gen, t);
+                }
+                gen.writeEndArray();
+
+                gen.writeArrayFieldStart("createdTasks");
+                while (created.hasNext()) {
+                    int cmp = Long.compare(created.peek().creatorId(), userId);
+                    if (cmp > 0) break;
+                    TaskView t = created.next();
+                    if (cmp == 0) objectMapper.writeValue(gen, t);
+                }
+                gen.writeEndArray();
+
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    // same shape as a serialized Role; users without roles have a single row with null role columns
+    private static void writeRole(JsonGenerator gen, Object[] row) throws IOException {
+        if (row[3] == null) return;
+        gen.writeStartObject();
+        gen.writeNumberField("id", (Integer) row[3]);
+        gen.writeStringField("name", (String) row[4]);
+        gen.writeStringField("description", (String) row[5]);
+        gen.writeEndObject();
+    }
+
+    private static final class PeekingIterator<T> {
+        private final Iterator<T> delegate;
+        private T head;
+
+        PeekingIterator(Iterator<T> delegate) { this.delegate = delegate; }
+
+        boolean hasNext() { return head != null || delegate.hasNext(); }
+
+        T peek() {
+            if (head == null) head = delegate.next();
+            return head;
+        }
+
+        T next() {
+            T t = peek();
+            head = null;
+            return t;
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.taskmanager.service;
 
 import com.taskmanager.model.User;
 import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.PrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,16 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private ListingVersions versions;
+
+    @Autowired
+    private TaskEventRelay relay;
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -22,10 +35,23 @@ public class UserService {
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user);
+        // may change the password or roles: tokens issued before this stop carrying trusted claims
+        user.setCredentialsChangedAt(Instant.now());
+        User saved = userRepository.save(user);
+        principalCache.evict(saved.getEmail());
+        versions.usersChanged();
+        relay.userChanged(saved.getId(), saved.getEmail());
+        return saved;
     }
 
     public void deleteUser(Long id) {
+        Optional<User> user = userRepository.findById(id);
         userRepository.deleteById(id);
+        // after the delete has committed, so nothing reloads and re-caches the old row
+        user.ifPresent(u -> {
+            principalCache.evict(u.getEmail());
+            relay.userChanged(u.getId(), u.getEmail());
+        });
+        versions.usersChanged();
     }
 }
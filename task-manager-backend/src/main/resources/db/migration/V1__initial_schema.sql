@@ -0,0 +1,95 @@
+-- Schema of the task manager. Until this migration the tables were created by
+-- spring.jpa.hibernate.ddl-auto=update and two startup runners; every statement is written so it
+-- also applies to such a database (baselined at version 0) and only adds what is missing there.
+
+CREATE TABLE IF NOT EXISTS roles (
+    id          serial PRIMARY KEY,
+    name        varchar(255) NOT NULL,
+    description varchar(255),
+    CONSTRAINT roles_name_key UNIQUE (name)
+);
+
+-- the unique constraint is also the index behind login / registration lookups by email
+CREATE TABLE IF NOT EXISTS users (
+    id         bigserial PRIMARY KEY,
+    full_name  varchar(255) NOT NULL,
+    email      varchar(255) NOT NULL,
+    password   varchar(255) NOT NULL,
+    phone      varchar(255),
+    created_at timestamp(6) with time zone,
+    updated_at timestamp(6) with time zone,
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+-- the primary key leads with user_id, which is how roles are loaded for a user
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id bigint  NOT NULL REFERENCES users,
+    role_id integer NOT NULL REFERENCES roles,
+    PRIMARY KEY (user_id, role_id)
+);
+
+-- ddl-auto=update named the unique constraints uk_<hash>; rename them so every database matches the above
+DO $$
+DECLARE
+    r record;
+BEGIN
+    FOR r IN SELECT c.conrelid::regclass AS tbl, c.conname, w.want
+             FROM (VALUES ('users'::regclass, 'email', 'users_email_key'),
+                          ('roles'::regclass, 'name', 'roles_name_key')) AS w (rel, col, want)
+             JOIN pg_constraint c ON c.conrelid = w.rel AND c.contype = 'u'
+             JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attname = w.col AND c.conkey = ARRAY[a.attnum]
+             WHERE c.conname <> w.want
+    LOOP
+        EXECUTE format('ALTER TABLE %s RENAME CONSTRAINT %I TO %I', r.tbl, r.conname, r.want);
+    END LOOP;
+END $$;
+
+-- ids come from task_id_seq with a pooled optimizer: increment must match allocationSize on Task
+CREATE SEQUENCE IF NOT EXISTS task_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          bigint PRIMARY KEY,
+    title       varchar(255),
+    description text,
+    status      varchar(255),
+    priority    varchar(255),
+    assignee_id bigint REFERENCES users,
+    creator_id  bigint REFERENCES users,
+    due_date    date,
+    created_at  timestamp(6) with time zone,
+    updated_at  timestamp(6) with time zone
+);
+
+-- optimistic lock column; the default fills rows written before it existed
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+-- Full-text search: stored generated tsvector (title weighted above description), not mapped on Task,
+-- kept current by Postgres. The 'simple' configuration doesn't stem, so prefix queries behave predictably.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED;
+
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    task_id     bigint PRIMARY KEY,
+    assignee_id bigint,
+    creator_id  bigint,
+    deleted_at  timestamp(6) with time zone NOT NULL
+);
+
+-- Task indexes. The assignee/creator/status filters also serve lookups by the leading column alone
+-- (assignee_id, creator_id, status), so those get no single-column index of their own.
+CREATE INDEX IF NOT EXISTS idx_tasks_created_at_id ON tasks (created_at, id);        -- keyset pages
+CREATE INDEX IF NOT EXISTS idx_tasks_assignee_status ON tasks (assignee_id, status);
+CREATE INDEX IF NOT EXISTS idx_tasks_creator_status ON tasks (creator_id, status);
+CREATE INDEX IF NOT EXISTS idx_tasks_status_due_date ON tasks (status, due_date);
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date);                   -- reminder window
+CREATE INDEX IF NOT EXISTS idx_tasks_updated_at_id ON tasks (updated_at, id);        -- delta sync
+CREATE INDEX IF NOT EXISTS idx_tasks_search ON tasks USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_deleted_at ON task_tombstones (deleted_at);
+
+-- role_id side of the join table, so deleting a role doesn't scan user_roles
+CREATE INDEX IF NOT EXISTS idx_user_roles_role_id ON user_roles (role_id);
+
+-- tasks.id used to be an IDENTITY column: move the sequence past ids already handed out
+SELECT setval('task_id_seq', m) FROM (SELECT max(id) AS m FROM tasks) t
+WHERE m IS NOT NULL AND m >= (SELECT last_value FROM task_id_seq);
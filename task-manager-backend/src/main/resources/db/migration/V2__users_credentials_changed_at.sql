@@ -0,0 +1,4 @@
+-- When a user's password or roles last changed (or the user was created). Tokens issued before it no
+-- longer carry trusted claims, which has to hold across restarts and on every instance, so it is stored
+-- with the user rather than only in the PrincipalCache. Null for users that haven't changed since it was added.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS credentials_changed_at timestamp(6) with time zone;
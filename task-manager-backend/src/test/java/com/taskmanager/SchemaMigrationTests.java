@@ -0,0 +1,69 @@
+package com.taskmanager;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The Flyway migrations against a real Postgres: the application only starts if Hibernate's validation
+ * of the entity mappings passes on the migrated schema. Works on an empty database as well as on one
+ * created by the former ddl-auto=update. Run with e.g.
+ *   SCHEMA_IT_DB_URL=jdbc:postgresql://localhost:5432/taskdb_schema mvn test -Dtest=SchemaMigrationTests
+ * (SCHEMA_IT_DB_USER / SCHEMA_IT_DB_PASSWORD default to the application's credentials).
+ */
+@EnabledIfEnvironmentVariable(named = "SCHEMA_IT_DB_URL", matches = ".+")
+class SchemaMigrationTests {
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void start() {
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--management.server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.url=" + System.getenv("SCHEMA_IT_DB_URL")));
+        if (System.getenv("SCHEMA_IT_DB_USER") != null) {
+            args.add("--spring.datasource.username=" + System.getenv("SCHEMA_IT_DB_USER"));
+        }
+        if (System.getenv("SCHEMA_IT_DB_PASSWORD") != null) {
+            args.add("--spring.datasource.password=" + System.getenv("SCHEMA_IT_DB_PASSWORD"));
+        }
+        context = new SpringApplicationBuilder(TaskManagerBackendApplication.class).run(args.toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void stop() {
+        if (context != null) context.close();
+    }
+
+    @Test
+    void allMigrationsApplied() {
+        Flyway flyway = context.getBean(Flyway.class);
+        assertEquals(0, flyway.info().pending().length);
+        assertNull(flyway.validateWithResult().errorDetails);
+    }
+
+    @Test
+    void queryIndexesExist() {
+        List<String> indexes = context.getBean(JdbcTemplate.class).queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema()", String.class);
+        for (String name : List.of("users_email_key", "roles_name_key", "user_roles_pkey", "idx_user_roles_role_id",
+                "idx_tasks_assignee_status", "idx_tasks_creator_status", "idx_tasks_status_due_date",
+                "idx_tasks_due_date", "idx_tasks_created_at_id", "idx_tasks_updated_at_id", "idx_tasks_search",
+                "idx_task_tombstones_deleted_at")) {
+            assertTrue(indexes.contains(name), "missing index " + name);
+        }
+    }
+}
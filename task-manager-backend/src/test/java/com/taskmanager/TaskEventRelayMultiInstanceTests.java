@@ -0,0 +1,171 @@
+package com.taskmanager;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.PrincipalCache;
+import com.taskmanager.service.ListingVersions;
+import com.taskmanager.service.TaskEventRelay;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.TaskStatsService;
+import com.taskmanager.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances on one local Postgres: a write on one must reach the other through
+ * TaskEventRelay, also across a dropped LISTEN connection. Run with e.g.
+ *   TASK_RELAY_IT_DB_URL=jdbc:postgresql://localhost:5432/taskdb_it mvn test -Dtest=TaskEventRelayMultiInstanceTests
+ * (TASK_RELAY_IT_DB_USER / TASK_RELAY_IT_DB_PASSWORD default to the application's credentials).
+ */
+@EnabledIfEnvironmentVariable(named = "TASK_RELAY_IT_DB_URL", matches = ".+")
+class TaskEventRelayMultiInstanceTests {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        await(() -> nodeA.getBean(TaskEventRelay.class).isConnected()
+                && nodeB.getBean(TaskEventRelay.class).isConnected(), "relays connected");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+    }
+
+    // command-line arguments: builder properties are only defaults and lose to application.properties
+    private static ConfigurableApplicationContext startNode() {
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--management.server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--app.taskRelay.enabled=true",
+                "--spring.datasource.url=" + System.getenv("TASK_RELAY_IT_DB_URL")));
+        if (System.getenv("TASK_RELAY_IT_DB_USER") != null) {
+            args.add("--spring.datasource.username=" + System.getenv("TASK_RELAY_IT_DB_USER"));
+        }
+        if (System.getenv("TASK_RELAY_IT_DB_PASSWORD") != null) {
+            args.add("--spring.datasource.password=" + System.getenv("TASK_RELAY_IT_DB_PASSWORD"));
+        }
+        return new SpringApplicationBuilder(TaskManagerBackendApplication.class).run(args.toArray(String[]::new));
+    }
+
+    @Test
+    void writeOnOneNodeReachesTheOther() {
+        TaskEventRelay relayB = nodeB.getBean(TaskEventRelay.class);
+        ListingVersions versionsB = nodeB.getBean(ListingVersions.class);
+        TaskStatsService statsB = nodeB.getBean(TaskStatsService.class);
+        long eventsBefore = relayB.getRemoteEventCount();
+        long totalBefore = statsB.global().getTotal();
+        String etagBefore = versionsB.etag("tasks");
+
+        Task created = nodeA.getBean(TaskService.class).save(newTask("relay"));
+
+        await(() -> relayB.getRemoteEventCount() > eventsBefore, "remote event on node B");
+        assertEquals(totalBefore + 1, statsB.global().getTotal());
+        assertTrue(!etagBefore.equals(versionsB.etag("tasks")), "listing version bumped on node B");
+
+        nodeA.getBean(TaskService.class).deleteTask(created.getId());
+        await(() -> statsB.global().getTotal() == totalBefore, "delete reflected in node B stats");
+    }
+
+    @Test
+    void userChangeOnOneNodeEvictsItsCachesOnTheOther() {
+        UserService usersA = nodeA.getBean(UserService.class);
+        UserRepository userRepositoryB = nodeB.getBean(UserRepository.class);
+        ListingVersions versionsB = nodeB.getBean(ListingVersions.class);
+        PrincipalCache principalsB = nodeB.getBean(PrincipalCache.class);
+        User user = new User();
+        user.setFullName("Before");
+        user.setEmail("relay-" + System.nanoTime() + "@example.com");
+        user.setPassword("x");
+        String etagBefore = versionsB.etag("users");
+        User saved = usersA.saveUser(user);
+        String email = saved.getEmail();
+        await(() -> !etagBefore.equals(versionsB.etag("users")), "user creation relayed to node B");
+        assertEquals("Before", userRepositoryB.findByEmail(email).orElseThrow().getFullName());
+
+        // a token issued now, in a later second than the creation, is trusted until the next change
+        sleep(1100);
+        Date issued = new Date();
+        assertTrue(!principalsB.isStale(email, issued));
+        String etagCreated = versionsB.etag("users");
+        saved.setFullName("After");
+        usersA.saveUser(saved);
+
+        await(() -> !etagCreated.equals(versionsB.etag("users")), "user change relayed to node B");
+        assertTrue(principalsB.isStale(email, issued), "principal evicted on node B");
+        // the second-level cache on node B no longer serves the old row
+        assertEquals("After", userRepositoryB.findByEmail(email).orElseThrow().getFullName());
+
+        usersA.deleteUser(saved.getId());
+        await(() -> userRepositoryB.findByEmail(email).isEmpty(), "delete reflected on node B");
+    }
+
+    @Test
+    void changesMissedWhileDisconnectedAreCaughtUp() {
+        TaskEventRelay relayB = nodeB.getBean(TaskEventRelay.class);
+        TaskStatsService statsB = nodeB.getBean(TaskStatsService.class);
+        long reconnectsBefore = relayB.getReconnectCount();
+        long totalBefore = statsB.global().getTotal();
+
+        // drop node B's LISTEN connection, then write while it is reconnecting
+        nodeA.getBean(JdbcTemplate.class).queryForList(
+                "select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?",
+                "task-relay-" + relayB.getNodeId());
+        Task created = nodeA.getBean(TaskService.class).save(newTask("missed"));
+
+        await(() -> relayB.getReconnectCount() > reconnectsBefore, "node B reconnected");
+        await(() -> statsB.global().getTotal() == totalBefore + 1, "missed write counted on node B");
+
+        nodeA.getBean(TaskService.class).deleteTask(created.getId());
+        await(() -> statsB.global().getTotal() == totalBefore, "delete reflected in node B stats");
+    }
+
+    private static Task newTask(String title) {
+        Task t = new Task();
+        t.setTitle(title);
+        t.setStatus("TODO");
+        t.setPriority("LOW");
+        return t;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String what) {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) throw new AssertionError("Timed out waiting for " + what);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
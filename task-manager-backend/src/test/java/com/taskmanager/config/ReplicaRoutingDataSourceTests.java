@@ -0,0 +1,142 @@
+package com.taskmanager.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing of the read/write split with stand-in pools: which pool serves a connection once its
+ * read-only flag is known, and the fallbacks to the primary.
+ */
+class ReplicaRoutingDataSourceTests {
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReplicaLagMonitor monitor;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = connection(0);
+        replicaConnection = connection(0.5);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        monitor = new ReplicaLagMonitor(replica, 2000, 1000);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, monitor));
+        dataSource = proxy;
+    }
+
+    @AfterEach
+    void clearPin() {
+        ReplicaRouting.clear();
+    }
+
+    @Test
+    void readOnlyGoesToReplicaOnceCheckPassed() throws SQLException {
+        monitor.check();
+        assertTrue(monitor.isUsable());
+        assertEquals(500, monitor.getLagMs());
+
+        assertEquals(replicaConnection, target(true));
+        assertEquals(primaryConnection, target(false));
+        assertEquals(1, monitor.getReplicaReadCount());
+    }
+
+    @Test
+    void readsStayOnPrimaryUntilFirstCheck() throws SQLException {
+        assertEquals(primaryConnection, target(true));
+    }
+
+    @Test
+    void laggingReplicaIsNotUsed() throws SQLException {
+        Connection lagging = connection(5);
+        when(replica.getConnection()).thenReturn(lagging);
+        monitor.check();
+        assertFalse(monitor.isUsable());
+        assertEquals(primaryConnection, target(true));
+    }
+
+    @Test
+    void pinnedThreadReadsPrimary() throws SQLException {
+        monitor.check();
+        ReplicaRouting.pinToPrimary();
+        assertEquals(primaryConnection, target(true));
+    }
+
+    @Test
+    void unreachableReplicaFailsOverToPrimary() throws SQLException {
+        monitor.check();
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertEquals(primaryConnection, target(true));
+        assertFalse(monitor.isUsable());
+        assertEquals(1, monitor.getFailoverCount());
+        // no further attempts until a check succeeds again
+        assertEquals(primaryConnection, target(true));
+        assertEquals(1, monitor.getFailoverCount());
+    }
+
+    @Test
+    void explicitCredentialsAreRoutedTheSameWay() throws SQLException {
+        Connection replicaAsUser = connection(0);
+        Connection primaryAsUser = connection(0);
+        when(replica.getConnection("reporter", "secret")).thenReturn(replicaAsUser);
+        when(primary.getConnection("reporter", "secret")).thenReturn(primaryAsUser);
+        DataSource router = new ReplicaRoutingDataSource(primary, replica, monitor);
+
+        assertEquals(primaryAsUser, router.getConnection("reporter", "secret"));
+        monitor.check();
+        assertEquals(replicaAsUser, router.getConnection("reporter", "secret"));
+        ReplicaRouting.pinToPrimary();
+        assertEquals(primaryAsUser, router.getConnection("reporter", "secret"));
+        ReplicaRouting.clear();
+
+        when(replica.getConnection("reporter", "secret")).thenThrow(new SQLException("connection refused"));
+        assertEquals(primaryAsUser, router.getConnection("reporter", "secret"));
+        assertEquals(1, monitor.getFailoverCount());
+    }
+
+    private Connection target(boolean readOnly) throws SQLException {
+        Connection lazy = dataSource.getConnection();
+        lazy.setReadOnly(readOnly);
+        // the first statement is what makes the proxy fetch its target
+        lazy.createStatement();
+        Connection target = ((ConnectionProxy) lazy).getTargetConnection();
+        lazy.close();
+        return target;
+    }
+
+    // a connection whose lag query answers lagSeconds
+    private static Connection connection(double lagSeconds) throws SQLException {
+        Connection c = mock(Connection.class);
+        Statement st = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(c.createStatement()).thenReturn(st);
+        when(c.getAutoCommit()).thenReturn(true);
+        when(st.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(lagSeconds);
+        return c;
+    }
+}
@@ -0,0 +1,46 @@
+package com.taskmanager.repo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskSearchQueryTests {
+
+    @Test
+    void everyWordBecomesARequiredPrefix() {
+        assertEquals("fix:* & log:*", TaskSearchQuery.prefixQuery("fix log"));
+        assertEquals("release:* & 2024:*", TaskSearchQuery.prefixQuery("  Release 2024 "));
+    }
+
+    @Test
+    void lowercasesAndDropsDuplicates() {
+        assertEquals("bug:* & report:*", TaskSearchQuery.prefixQuery("BUG report bug Report"));
+    }
+
+    @Test
+    void keepsNonAsciiLetters() {
+        assertEquals("größe:* & café:*", TaskSearchQuery.prefixQuery("Größe café"));
+    }
+
+    @Test
+    void stripsTsqueryOperators() {
+        assertEquals("a:* & b:*", TaskSearchQuery.prefixQuery("a & !b"));
+        assertEquals("x:* & y:* & z:*", TaskSearchQuery.prefixQuery("x | (y <-> z):*"));
+        assertEquals("drop:* & table:*", TaskSearchQuery.prefixQuery("'); drop table --"));
+        assertEquals("foo:* & b:* & bar:*", TaskSearchQuery.prefixQuery("foo:*B bar"));
+    }
+
+    @Test
+    void stopsAtMaxTerms() {
+        assertEquals("a:* & b:* & c:* & d:* & e:* & f:* & g:* & h:*",
+                TaskSearchQuery.prefixQuery("a b c d e f g h i j"));
+    }
+
+    @Test
+    void nothingSearchableIsNull() {
+        assertNull(TaskSearchQuery.prefixQuery(null));
+        assertNull(TaskSearchQuery.prefixQuery(""));
+        assertNull(TaskSearchQuery.prefixQuery(" &|!:*() "));
+    }
+}
@@ -0,0 +1,85 @@
+package com.taskmanager.security;
+
+import com.taskmanager.repo.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTests {
+
+    private static final Instant CHANGED = Instant.now().minus(10, ChronoUnit.MINUTES);
+
+    private UserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        when(repository.findCredentialsChangedAt("changed@example.com")).thenReturn(List.of(CHANGED));
+        when(repository.findCredentialsChangedAt("never@example.com")).thenReturn(Collections.singletonList(null));
+        when(repository.findCredentialsChangedAt("gone@example.com")).thenReturn(List.of());
+    }
+
+    @Test
+    void persistedChangeOutlivesARestart() {
+        // a fresh cache knows nothing in memory, as after a restart
+        PrincipalCache cache = new PrincipalCache(repository, 100, 60, 3_600_000);
+
+        assertTrue(cache.isStale("changed@example.com", at(CHANGED.minusSeconds(60))));
+        assertTrue(cache.isStale("changed@example.com", at(CHANGED)));   // same second
+        assertFalse(cache.isStale("changed@example.com", at(CHANGED.plusSeconds(1))));
+        assertFalse(cache.isStale("never@example.com", at(CHANGED)));
+        assertTrue(cache.isStale("gone@example.com", at(Instant.now())));
+        assertTrue(cache.isStale("never@example.com", null));
+        // read once, then kept
+        verify(repository, times(1)).findCredentialsChangedAt("changed@example.com");
+    }
+
+    @Test
+    void sizeEvictionFallsBackToThePersistedChange() {
+        PrincipalCache cache = new PrincipalCache(repository, 1, 60, 3_600_000);
+        for (int i = 0; i < 50; i++) cache.isStale("other" + i + "@example.com", at(Instant.now()));
+
+        assertTrue(cache.isStale("changed@example.com", at(CHANGED.minusSeconds(60))));
+    }
+
+    @Test
+    void evictAllRereadsEveryChange() {
+        PrincipalCache cache = new PrincipalCache(repository, 100, 60, 3_600_000);
+        Date issued = at(Instant.now().minusSeconds(5));
+        assertFalse(cache.isStale("never@example.com", issued));
+
+        // changed on another instance while the relay was down
+        when(repository.findCredentialsChangedAt("never@example.com")).thenReturn(List.of(Instant.now()));
+        assertFalse(cache.isStale("never@example.com", issued));
+        cache.evictAll();
+
+        assertTrue(cache.isStale("never@example.com", issued));
+    }
+
+    @Test
+    void evictMarksTheUserChangedNow() {
+        PrincipalCache cache = new PrincipalCache(repository, 100, 60, 3_600_000);
+        Date issued = at(Instant.now().minusSeconds(5));
+        assertFalse(cache.isStale("never@example.com", issued));
+
+        cache.evict("never@example.com");
+
+        assertTrue(cache.isStale("never@example.com", issued));
+    }
+
+    private static Date at(Instant instant) {
+        return Date.from(instant);
+    }
+}
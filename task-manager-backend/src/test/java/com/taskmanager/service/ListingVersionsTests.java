@@ -0,0 +1,108 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListingVersionsTests {
+
+    private final ListingVersions versions = new ListingVersions(5000);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void etagIsStableUntilAChange() {
+        String etag = versions.etag("tasks|1");
+        assertEquals(etag, versions.etag("tasks|1"));
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+
+        versions.onTaskEvent(new TaskEvent(TaskEvent.Type.DELETED, 1L, null, null, null));
+        String afterTask = versions.etag("tasks|1");
+        assertNotEquals(etag, afterTask);
+
+        versions.usersChanged();
+        assertNotEquals(afterTask, versions.etag("tasks|1"));
+    }
+
+    @Test
+    void etagDependsOnScope() {
+        assertNotEquals(versions.etag("tasks|1"), versions.etag("tasks|2"));
+    }
+
+    @Test
+    void lastModifiedIsWholeSecondsAndStrictlyIncreasing() {
+        long previous = versions.lastModified();
+        assertEquals(0, previous % 1000);
+        // many bumps within the same second still move it forward each time
+        for (int i = 0; i < 5; i++) {
+            versions.onTaskBatch(new TaskBatchEvent(List.of()));
+            long current = versions.lastModified();
+            assertEquals(0, current % 1000);
+            assertTrue(current >= previous + 1000, current + " after " + previous);
+            previous = current;
+        }
+    }
+
+    @Test
+    void transactionalChangesApplyOnlyAfterCommit() {
+        String etag = versions.etag("users");
+        long lastModified = versions.lastModified();
+        TransactionSynchronizationManager.initSynchronization();
+        versions.usersChanged();
+        versions.tasksChanged();
+        assertEquals(etag, versions.etag("users"));
+        assertEquals(lastModified, versions.lastModified());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNotEquals(etag, versions.etag("users"));
+        assertTrue(versions.lastModified() >= lastModified + 2000);
+    }
+
+    @Test
+    void listingsAreReadFromThePrimaryRightAfterAChange() throws InterruptedException {
+        ListingVersions shortWindow = new ListingVersions(100);
+        // the start counts as a change
+        assertTrue(shortWindow.read(ReplicaRouting::isPinnedToPrimary));
+
+        Thread.sleep(150);
+        assertFalse(shortWindow.read(ReplicaRouting::isPinnedToPrimary));
+
+        shortWindow.onTaskEvent(new TaskEvent(TaskEvent.Type.DELETED, 1L, null, null, null));
+        assertTrue(shortWindow.read(ReplicaRouting::isPinnedToPrimary));
+        // the pin ends with the read
+        assertFalse(ReplicaRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    void scopeIgnoresParameterOrder() {
+        Map<String, String[]> a = new LinkedHashMap<>();
+        a.put("status", new String[]{"TODO"});
+        a.put("page", new String[]{"2"});
+        Map<String, String[]> b = new LinkedHashMap<>();
+        b.put("page", new String[]{"2"});
+        b.put("status", new String[]{"TODO"});
+
+        assertEquals(ListingVersions.scope("tasks", 7L, a), ListingVersions.scope("tasks", 7L, b));
+        assertNotEquals(ListingVersions.scope("tasks", 7L, a), ListingVersions.scope("tasks", 8L, a));
+        b.put("page", new String[]{"3"});
+        assertNotEquals(ListingVersions.scope("tasks", 7L, a), ListingVersions.scope("tasks", 7L, b));
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.TaskView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskCursorTests {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        Instant createdAt = Instant.parse("2024-03-01T10:15:30.123456Z");
+        TaskCursor cursor = TaskCursor.decode(TaskCursor.encode(view(42L, createdAt)));
+
+        assertEquals(createdAt, cursor.getCreatedAt());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void keepsNanosecondsBeforeTheEpoch() {
+        Instant createdAt = Instant.ofEpochSecond(-5, 7);
+        assertEquals(createdAt, TaskCursor.decode(TaskCursor.encode(view(1L, createdAt))).getCreatedAt());
+    }
+
+    @Test
+    void isUrlSafe() {
+        String encoded = TaskCursor.encode(view(Long.MAX_VALUE, Instant.parse("2024-03-01T10:15:30.999999Z")));
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("not base64!");
+        assertInvalid("");
+        assertInvalid(raw("1700000000.0"));            // no id
+        assertInvalid(raw("1700000000|42"));           // no nanos
+        assertInvalid(raw("1700000000.0|42; drop"));   // edited id
+        assertInvalid(raw("x.0|42"));
+        assertInvalid(raw(Long.MAX_VALUE + ".0|42"));  // out of Instant range
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode(cursor));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    private static String raw(String s) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TaskView view(Long id, Instant createdAt) {
+        return new TaskView(id, "t", null, "TODO", "LOW", null, null, null, null, null, createdAt, createdAt, 0);
+    }
+}
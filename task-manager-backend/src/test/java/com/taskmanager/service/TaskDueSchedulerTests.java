@@ -0,0 +1,138 @@
+package com.taskmanager.service;
+
+import com.taskmanager.config.ReplicaRouting;
+import com.taskmanager.dto.TaskEvent;
+import com.taskmanager.dto.TaskReminder;
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.repo.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskDueSchedulerTests {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+    private static final int HORIZON = 7;
+
+    private TaskRepository repository;
+    private SimpMessagingTemplate template;
+    private TaskSubscriptionRegistry subscriptions;
+    private TaskDueScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TaskRepository.class);
+        template = mock(SimpMessagingTemplate.class);
+        subscriptions = mock(TaskSubscriptionRegistry.class);
+        when(subscriptions.find(10L)).thenReturn(new TaskSubscriptionRegistry.Subscriber(10L, "alice", false));
+        when(repository.findOpenDueBetween(TODAY.minusDays(1), TODAY.plusDays(HORIZON))).thenReturn(rows(
+                new Object[]{1L, 10L, TODAY.minusDays(1)},
+                new Object[]{2L, 10L, TODAY.plusDays(1)},
+                new Object[]{3L, 20L, TODAY.plusDays(1)},
+                new Object[]{4L, 10L, TODAY.plusDays(5)}));
+        scheduler = new TaskDueScheduler(repository, template, subscriptions, true, HORIZON, 1, "08:00", "UTC");
+        scheduler.reload();
+    }
+
+    @Test
+    void reloadPutsTheWindowIntoBuckets() {
+        assertEquals(4, scheduler.getPendingCount());
+    }
+
+    @Test
+    void committedChangesMoveAndRemoveTasks() {
+        scheduler.apply(List.of(
+                updated(4L, 10L, TODAY.plusDays(2), "TODO"),          // moved within the window
+                updated(5L, 10L, TODAY.plusDays(3), "TODO"),          // new
+                updated(6L, 10L, TODAY.plusDays(HORIZON + 1), "TODO"), // beyond the window
+                updated(2L, 10L, TODAY.plusDays(1), "DONE"),          // finished
+                new TaskEvent(TaskEvent.Type.DELETED, 3L, null, 20L, null)));
+        assertEquals(3, scheduler.getPendingCount());
+
+        // moving the same task twice keeps one entry
+        scheduler.apply(List.of(updated(4L, 10L, TODAY.plusDays(3), "TODO"), updated(4L, null, TODAY.plusDays(3), "TODO")));
+        assertEquals(2, scheduler.getPendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tickSendsOverdueAndDueSoonToOnlineAssigneesAfterReReading() {
+        when(repository.findViews(any(Specification.class), eq(0))).thenReturn(
+                List.of(view(1L, 10L, TODAY.minusDays(1), "TODO")),
+                List.of(view(2L, 10L, TODAY.plusDays(1), "TODO")));
+
+        scheduler.tick(TODAY);
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(template, times(2)).convertAndSendToUser(eq("alice"), eq(TaskDueScheduler.USER_QUEUE), sent.capture());
+        List<TaskReminder> overdue = (List<TaskReminder>) sent.getAllValues().get(0);
+        List<TaskReminder> soon = (List<TaskReminder>) sent.getAllValues().get(1);
+        assertEquals(List.of(new TaskReminder(TaskReminder.Type.OVERDUE, 1L, "t1", TODAY.minusDays(1))), overdue);
+        assertEquals(List.of(new TaskReminder(TaskReminder.Type.DUE_SOON, 2L, "t2", TODAY.plusDays(1))), soon);
+        assertEquals(1, scheduler.getOverdueSentCount());
+        assertEquals(1, scheduler.getRemindersSentCount());
+        // the passed bucket is dropped, the rest stays
+        assertEquals(3, scheduler.getPendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tickSkipsTasksChangedSinceTheyWereBucketed() {
+        when(repository.findViews(any(Specification.class), eq(0))).thenReturn(
+                List.of(view(1L, 10L, TODAY.minusDays(1), "DONE")),
+                List.of(view(2L, 10L, TODAY.plusDays(2), "TODO")));
+
+        scheduler.tick(TODAY);
+
+        verify(template, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+        assertEquals(0, scheduler.getOverdueSentCount() + scheduler.getRemindersSentCount());
+    }
+
+    @Test
+    void tickMovesTheWindowAndLoadsOnlyTheNewDayFromThePrimary() {
+        LocalDate tomorrow = TODAY.plusDays(1);
+        LocalDate newDay = tomorrow.plusDays(HORIZON);
+        List<Boolean> pinned = new ArrayList<>();
+        when(repository.findOpenDueBetween(newDay, newDay)).thenAnswer(inv -> {
+            pinned.add(ReplicaRouting.isPinnedToPrimary());
+            return rows(new Object[]{7L, 10L, newDay}, new Object[]{4L, 10L, TODAY.plusDays(5)});
+        });
+
+        scheduler.tick(tomorrow);
+
+        assertEquals(List.of(true), pinned);
+        assertFalse(ReplicaRouting.isPinnedToPrimary());
+        // 1 passed; 7 added, 4 already tracked
+        assertEquals(4, scheduler.getPendingCount());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    private static TaskEvent updated(Long id, Long assigneeId, LocalDate due, String status) {
+        return new TaskEvent(TaskEvent.Type.UPDATED, id, view(id, assigneeId, due, status), assigneeId, null);
+    }
+
+    private static TaskView view(Long id, Long assigneeId, LocalDate due, String status) {
+        return new TaskView(id, "t" + id, null, status, "LOW", assigneeId, null, null, null, due, null, null, 0);
+    }
+}
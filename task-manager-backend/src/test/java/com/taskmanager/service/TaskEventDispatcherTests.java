@@ -0,0 +1,150 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.TaskBatchEvent;
+import com.taskmanager.dto.TaskEvent;
+import com.taskmanager.dto.TaskView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coalescing and per-user routing of task events. Events are queued before the dispatcher thread
+ * starts, so they are drained as one batch.
+ */
+class TaskEventDispatcherTests {
+
+    private SimpMessagingTemplate template;
+    private TaskSubscriptionRegistry subscriptions;
+    private TaskEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        template = mock(SimpMessagingTemplate.class);
+        subscriptions = mock(TaskSubscriptionRegistry.class);
+        when(subscriptions.find(1L)).thenReturn(new TaskSubscriptionRegistry.Subscriber(1L, "alice", false));
+        when(subscriptions.find(2L)).thenReturn(new TaskSubscriptionRegistry.Subscriber(2L, "bob", false));
+        when(subscriptions.admins()).thenReturn(List.of());
+        dispatcher = new TaskEventDispatcher(template, subscriptions, 4, 500, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Test
+    void createdThenUpdatedStaysCreatedWithLatestState() {
+        TaskEvent created = event(TaskEvent.Type.CREATED, 10L, "v1", 1L, 1L);
+        TaskEvent updated = event(TaskEvent.Type.UPDATED, 10L, "v2", 1L, 1L);
+
+        TaskEvent merged = updated.mergeAfter(created);
+
+        assertEquals(TaskEvent.Type.CREATED, merged.getType());
+        assertEquals("v2", merged.getTask().title());
+    }
+
+    @Test
+    void latestEventWinsOtherwise() {
+        TaskEvent first = event(TaskEvent.Type.UPDATED, 10L, "v1", 1L, 1L);
+        TaskEvent second = event(TaskEvent.Type.UPDATED, 10L, "v2", 1L, 1L);
+        TaskEvent deleted = new TaskEvent(TaskEvent.Type.DELETED, 10L, null, 1L, 1L);
+
+        assertEquals("v2", second.mergeAfter(first).getTask().title());
+        assertEquals(TaskEvent.Type.UPDATED, second.mergeAfter(first).getType());
+        TaskEvent merged = deleted.mergeAfter(second);
+        assertEquals(TaskEvent.Type.DELETED, merged.getType());
+        assertNull(merged.getTask());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void burstForOneTaskIsSentOnce() {
+        dispatcher.onTaskEvent(event(TaskEvent.Type.CREATED, 10L, "v1", 1L, 1L));
+        dispatcher.onTaskEvent(event(TaskEvent.Type.UPDATED, 10L, "v2", 1L, 1L));
+        dispatcher.onTaskBatch(new TaskBatchEvent(List.of(
+                event(TaskEvent.Type.UPDATED, 10L, "v3", 1L, 1L),
+                event(TaskEvent.Type.UPDATED, 11L, "other", 1L, 1L))));
+        dispatcher.start();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(template, timeout(2000)).convertAndSendToUser(eq("alice"), eq(TaskSubscriptionRegistry.USER_QUEUE), payload.capture());
+        List<TaskEvent> sent = (List<TaskEvent>) payload.getValue();
+        assertEquals(2, sent.size());
+        assertEquals(TaskEvent.Type.CREATED, sent.get(0).getType());
+        assertEquals("v3", sent.get(0).getTask().title());
+        assertEquals(11L, sent.get(1).getTaskId());
+        assertEquals(4, dispatcher.getPublishedCount());
+        assertEquals(2, dispatcher.getCoalescedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void routedToAssigneeCreatorAndAdminsOnly() {
+        when(subscriptions.admins()).thenReturn(List.of(new TaskSubscriptionRegistry.Subscriber(9L, "root", true)));
+        dispatcher.onTaskEvent(event(TaskEvent.Type.UPDATED, 10L, "mine", 1L, 3L));
+        dispatcher.onTaskEvent(event(TaskEvent.Type.UPDATED, 11L, "bobs", 2L, 2L));
+        dispatcher.start();
+
+        ArgumentCaptor<Object> toRoot = ArgumentCaptor.forClass(Object.class);
+        verify(template, timeout(2000)).convertAndSendToUser(eq("root"), anyString(), toRoot.capture());
+        ArgumentCaptor<Object> toAlice = ArgumentCaptor.forClass(Object.class);
+        verify(template, timeout(2000)).convertAndSendToUser(eq("alice"), anyString(), toAlice.capture());
+        assertEquals(2, ((List<TaskEvent>) toRoot.getValue()).size());
+        assertEquals(List.of(10L), ((List<TaskEvent>) toAlice.getValue()).stream().map(TaskEvent::getTaskId).toList());
+        // user 3 has no open subscription
+        verify(subscriptions, timeout(2000)).find(3L);
+    }
+
+    @Test
+    void mergeKeepsEveryFormerOwner() {
+        TaskEvent first = new TaskEvent(TaskEvent.Type.UPDATED, 10L, null, 2L, 1L, List.of(3L, 1L));
+        TaskEvent second = new TaskEvent(TaskEvent.Type.UPDATED, 10L, null, 4L, 1L, List.of(2L));
+
+        assertEquals(List.of(3L), first.getPreviousOwnerIds());
+        assertEquals(List.of(3L, 2L), second.mergeAfter(first).getPreviousOwnerIds());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reassignmentReachesThePreviousAssignee() {
+        TaskView v = new TaskView(10L, "moved", null, "TODO", "LOW", 2L, null, 3L, null, null, null, null, 1);
+        dispatcher.onTaskEvent(new TaskEvent(TaskEvent.Type.UPDATED, 10L, v, 2L, 3L, List.of(1L, 3L)));
+        dispatcher.start();
+
+        ArgumentCaptor<Object> toAlice = ArgumentCaptor.forClass(Object.class);
+        verify(template, timeout(2000)).convertAndSendToUser(eq("alice"), anyString(), toAlice.capture());
+        verify(template, timeout(2000)).convertAndSendToUser(eq("bob"), anyString(), any(Object.class));
+        assertEquals(2L, ((List<TaskEvent>) toAlice.getValue()).get(0).getTask().assigneeId());
+    }
+
+    @Test
+    void eventsBeyondQueueCapacityAreDropped() {
+        for (long id = 1; id <= 6; id++) dispatcher.onTaskEvent(event(TaskEvent.Type.UPDATED, id, "t", 1L, 1L));
+
+        assertEquals(6, dispatcher.getPublishedCount());
+        assertEquals(2, dispatcher.getDroppedCount());
+        assertEquals(4, dispatcher.getQueueSize());
+        verify(template, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    private static TaskEvent event(TaskEvent.Type type, Long id, String title, Long assigneeId, Long creatorId) {
+        TaskView v = new TaskView(id, title, null, "TODO", "LOW", assigneeId, null, creatorId, null,
+                null, null, null, 0);
+        return new TaskEvent(type, id, v, assigneeId, creatorId);
+    }
+}
@@ -0,0 +1,194 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.TaskStats;
+import com.taskmanager.dto.TaskStatsRow;
+import com.taskmanager.repo.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskStatsServiceTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private TaskRepository repository;
+    private TaskStatsService stats;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TaskRepository.class);
+        when(repository.aggregateStats()).thenReturn(List.of(
+                row("TODO", "HIGH", 1L, 2L, TODAY.minusDays(1), 3),
+                row("DONE", "LOW", 1L, 1L, TODAY.minusDays(5), 2),
+                row("TODO", null, null, 2L, null, 1)));
+        when(repository.currentSnapshot()).thenReturn("100:105:102,104");
+        stats = new TaskStatsService(repository, mock(PlatformTransactionManager.class));
+        stats.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuildCountsGloballyAndPerUser() {
+        TaskStats global = stats.global();
+        assertEquals(6, global.getTotal());
+        assertEquals(Map.of("TODO", 4L, "DONE", 2L), global.getByStatus());
+        assertEquals(Map.of("HIGH", 3L, "LOW", 2L, "UNSET", 1L), global.getByPriority());
+        assertEquals(1, global.getUnassigned());
+        assertEquals(3, global.getOverdue());   // DONE tasks are never overdue
+
+        assertEquals(5, stats.forUser(1L).getTotal());   // assignee and creator of the DONE rows, counted once
+        assertEquals(4, stats.forUser(2L).getTotal());
+        assertEquals(0, stats.forUser(99L).getTotal());
+    }
+
+    @Test
+    void changeOutsideTransactionAppliesAtOnce() {
+        stats.recordChange(row("TODO", "HIGH", 1L, 2L, TODAY.minusDays(1), 1),
+                row("DONE", "HIGH", 1L, 2L, TODAY.minusDays(1), 1));
+
+        TaskStats global = stats.global();
+        assertEquals(6, global.getTotal());
+        assertEquals(Map.of("TODO", 3L, "DONE", 3L), global.getByStatus());
+        assertEquals(2, global.getOverdue());
+    }
+
+    @Test
+    void transactionDeltaIsNettedAndAppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TaskStatsRow todo = row("TODO", "LOW", 3L, 3L, null, 1);
+        TaskStatsRow done = row("DONE", "LOW", 3L, 3L, null, 1);
+        stats.recordChange(null, todo);
+        stats.recordChange(todo, done);
+        stats.recordChange(null, todo);
+
+        // TODO +1 -1 +1 nets to one row
+        assertEquals(Set.of(row("TODO", "LOW", 3L, 3L, null, 1), row("DONE", "LOW", 3L, 3L, null, 1)),
+                Set.copyOf(stats.pendingDelta()));
+        assertEquals(6, stats.global().getTotal());
+
+        commit();
+        assertEquals(8, stats.global().getTotal());
+        assertEquals(Map.of("TODO", 1L, "DONE", 1L), stats.forUser(3L).getByStatus());
+    }
+
+    @Test
+    void txidIsOnlyLookedUpWhenNeeded() {
+        TransactionSynchronizationManager.initSynchronization();
+        stats.recordChange(null, row("TODO", "LOW", 3L, 3L, null, 1));
+        commit();
+        verify(repository, never()).currentTxid();
+
+        // before the first rebuild has finished
+        TaskStatsService fresh = new TaskStatsService(repository, mock(PlatformTransactionManager.class));
+        when(repository.currentTxid()).thenReturn(42L);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        fresh.recordChange(null, row("TODO", "LOW", 3L, 3L, null, 1));
+        assertEquals(42L, fresh.pendingTxid());
+        commit();
+        verify(repository, times(1)).currentTxid();
+    }
+
+    @Test
+    void remoteDeltaIsAppliedWithItsSign() {
+        stats.applyDelta(List.of(row("TODO", "HIGH", 1L, 2L, TODAY.minusDays(1), -2),
+                row("DONE", "HIGH", 1L, 2L, TODAY.minusDays(1), 2)), 110);
+
+        assertEquals(Map.of("TODO", 2L, "DONE", 4L), stats.global().getByStatus());
+        assertEquals(1, stats.global().getOverdue());
+        assertTrue(stats.forUser(2L).getByStatus().containsKey("DONE"));
+    }
+
+    @Test
+    void deltasAlreadyInTheRebuildSnapshotAreSkipped() {
+        List<TaskStatsRow> one = List.of(row("TODO", "LOW", 5L, 5L, null, 1));
+        stats.applyDelta(one, 99);    // committed before the snapshot
+        stats.applyDelta(one, 103);   // committed before, between in-progress ones
+        assertEquals(6, stats.global().getTotal());
+
+        stats.applyDelta(one, 102);   // in progress at the snapshot
+        stats.applyDelta(one, 105);   // started after it
+        stats.applyDelta(one, 0);     // unknown
+        assertEquals(9, stats.global().getTotal());
+    }
+
+    @Test
+    void deltasAppliedDuringARebuildAreReplayedOntoIt() {
+        when(repository.aggregateStats()).thenAnswer(inv -> {
+            // these land between the aggregate query and the swap
+            stats.applyDelta(List.of(row("TODO", "LOW", 5L, 5L, null, 1)), 101);   // already in the aggregate
+            stats.applyDelta(List.of(row("TODO", "LOW", 5L, 5L, null, 2)), 104);   // not yet
+            return List.of(row("TODO", "LOW", 5L, 5L, null, 7));
+        });
+        stats.rebuild();
+
+        assertEquals(9, stats.global().getTotal());
+        assertEquals(9, stats.forUser(5L).getTotal());
+        // replayed once only
+        stats.applyDelta(List.of(row("DONE", "LOW", 5L, 5L, null, 1)), 200);
+        assertEquals(10, stats.global().getTotal());
+    }
+
+    @Test
+    void snapshotVisibility() {
+        TaskStatsService.TxSnapshot snapshot = TaskStatsService.TxSnapshot.parse("100:105:102,104");
+        assertTrue(snapshot.includes(1));
+        assertTrue(snapshot.includes(101));
+        assertTrue(snapshot.includes(103));
+        assertFalse(snapshot.includes(102));
+        assertFalse(snapshot.includes(105));
+        assertFalse(snapshot.includes(0));
+        assertTrue(TaskStatsService.TxSnapshot.parse("7:7:").includes(6));
+    }
+
+    @Test
+    void overdueRollsForwardWithTheDate() {
+        stats.recordChange(null, row("TODO", "LOW", 1L, 1L, TODAY, 1));
+        stats.recordChange(null, row("TODO", "LOW", 1L, 1L, TODAY.plusDays(2), 4));
+        stats.recordChange(null, row("DONE", "LOW", 1L, 1L, TODAY.plusDays(1), 1));
+        assertEquals(3, stats.global(TODAY).getOverdue());
+
+        assertEquals(4, stats.global(TODAY.plusDays(1)).getOverdue());
+        assertEquals(8, stats.global(TODAY.plusDays(3)).getOverdue());
+        assertEquals(TODAY.plusDays(3), stats.global(TODAY.plusDays(3)).getAsOf());
+        // an earlier date doesn't roll back
+        assertEquals(8, stats.global(TODAY.plusDays(1)).getOverdue());
+
+        assertEquals(8, stats.forUser(1L, TODAY.plusDays(3)).getOverdue());
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(s -> s.beforeCommit(false));
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static TaskStatsRow row(String status, String priority, Long assigneeId, Long creatorId,
+                                    LocalDate dueDate, long count) {
+        return new TaskStatsRow(status, priority, assigneeId, creatorId, dueDate, count);
+    }
+}
@@ -0,0 +1,82 @@
+package com.taskmanager.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to drain a burst of simulated requests: platform pool sized like Tomcat's default
+ * (200 threads) vs. a virtual thread per request. Each request does some non-DB blocking
+ * (auth, serialization, network) and one JDBC call gated by a semaphore the size of the
+ * Hikari pool, so the DB cap is the same in both modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"1000", "5000"})
+    public int burst;
+
+    // matches spring.datasource.hikari.maximum-pool-size
+    @Param({"20"})
+    public int poolSize;
+
+    @Param({"2"})
+    public int dbMillis;
+
+    @Param({"10"})
+    public int otherBlockingMillis;
+
+    private ExecutorService executor;
+    private Semaphore connections;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connections = new Semaphore(poolSize, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            futures.add(executor.submit(this::request));
+        }
+        int done = 0;
+        for (Future<Integer> f : futures) done += f.get();
+        return done;
+    }
+
+    private int request() throws InterruptedException {
+        Thread.sleep(otherBlockingMillis);
+        connections.acquire();
+        try {
+            Thread.sleep(dbMillis);
+        } finally {
+            connections.release();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.taskmanager.bench;
+
+import com.taskmanager.model.User;
+import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.AuthTokenFilter;
+import com.taskmanager.security.JwtPrincipalResolver;
+import com.taskmanager.security.JwtUtils;
+import com.taskmanager.security.PrincipalCache;
+import com.taskmanager.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full filter pass for one authenticated request. The user store is an in-memory stub,
+ * so the "legacy" case shows the cache + UserDetails cost, not database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    /** claims: token carries uid/roles; legacy: subject only, principal comes from the user store. */
+    @Param({"claims", "legacy"})
+    public String tokenKind;
+
+    private AuthTokenFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        User user = Fixtures.user(1, "ROLE_USER");
+        JwtUtils jwtUtils = Fixtures.jwtUtils();
+        UserRepository users = Fixtures.userRepository(user);
+        UserDetailsServiceImpl uds = new UserDetailsServiceImpl(users);
+        PrincipalCache cache = new PrincipalCache(users, 10_000, 60, 3_600_000);
+        filter = new AuthTokenFilter(new JwtPrincipalResolver(jwtUtils, uds, cache), new SimpleMeterRegistry());
+
+        String token = "claims".equals(tokenKind)
+                ? jwtUtils.generateJwtToken(user.getEmail(), user.getId(), List.of("ROLE_USER"))
+                : Jwts.builder()
+                        .setSubject(user.getEmail())
+                        .setIssuedAt(new Date())
+                        .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                        .signWith(Keys.hmacShaKeyFor(Fixtures.SECRET.getBytes()), SignatureAlgorithm.HS256)
+                        .compact();
+        authorization = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", authorization);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object auth = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return auth;
+    }
+}
@@ -0,0 +1,170 @@
+package com.taskmanager.bench;
+
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.model.Role;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import com.taskmanager.repo.TaskRepository;
+import com.taskmanager.repo.UserRepository;
+import com.taskmanager.security.JwtUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the objects under test without a Spring context or database.
+ */
+final class Fixtures {
+
+    static final String SECRET = "BenchmarkSecretBenchmarkSecretBenchmarkSecret!";
+
+    private Fixtures() {}
+
+    static JwtUtils jwtUtils() {
+        JwtUtils jwt = new JwtUtils();
+        setField(jwt, "jwtSecret", SECRET);
+        setField(jwt, "jwtExpirationMs", 3_600_000);
+        invoke(jwt, "init");
+        return jwt;
+    }
+
+    static User user(long id, String roleName) {
+        Role role = new Role();
+        role.setId((int) (id % 3) + 1);
+        role.setName(roleName);
+        role.setDescription(roleName + " role");
+        User u = new User();
+        u.setId(id);
+        u.setFullName("User " + id);
+        u.setEmail("user" + id + "@example.com");
+        u.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5YxK5Ge8Q7rR6s7rG1W3y6e");
+        u.setPhone("+1-555-0100");
+        Set<Role> roles = new HashSet<>();
+        roles.add(role);
+        u.setRoles(roles);
+        return u;
+    }
+
+    /** size tasks spread over the given users, round-robin as assignee and creator. */
+    static List<Task> tasks(int size, List<User> users) {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task t = new Task();
+            t.setId((long) i + 1);
+            t.setTitle("Task " + i);
+            t.setDescription("Description of task " + i + " with a few more words to look realistic.");
+            t.setStatus(i % 3 == 0 ? "DONE" : "TODO");
+            t.setPriority(i % 2 == 0 ? "HIGH" : "MEDIUM");
+            t.setAssignee(users.get(i % users.size()));
+            t.setCreator(users.get((i + 1) % users.size()));
+            t.setDueDate(LocalDate.of(2030, 1, 1).plusDays(i % 365));
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    static UserRepository userRepository(User user) {
+        return stub(UserRepository.class, (method, args) -> {
+            if (method.getName().equals("findByEmail")) {
+                return user.getEmail().equals(args[0]) ? Optional.of(user) : Optional.empty();
+            }
+            if (method.getName().equals("findCredentialsChangedAt")) {
+                // never changed, so claim tokens stay trusted
+                return user.getEmail().equals(args[0]) ? Collections.singletonList(null) : List.of();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Any findViews(..) returns the views of the given tasks; findByAssigneeId/findByCreatorId return
+     * the matching entities, precomputed so both listing paths only pay for what happens after the query.
+     */
+    static TaskRepository taskRepository(List<Task> tasks) {
+        List<TaskView> views = tasks.stream().map(TaskView::of).toList();
+        Map<Long, List<Task>> byAssignee = tasks.stream().collect(Collectors.groupingBy(t -> t.getAssignee().getId()));
+        Map<Long, List<Task>> byCreator = tasks.stream().collect(Collectors.groupingBy(t -> t.getCreator().getId()));
+        return stub(TaskRepository.class, (method, args) -> switch (method.getName()) {
+            case "findViews" -> views;
+            case "findByAssigneeId" -> byAssignee.getOrDefault((Long) args[0], List.of());
+            case "findByCreatorId" -> byCreator.getOrDefault((Long) args[0], List.of());
+            default -> null;
+        });
+    }
+
+    /** Runs callbacks without a resource; enough for services that open a TransactionTemplate. */
+    static PlatformTransactionManager transactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+
+    interface Answer {
+        Object answer(Method method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            Object result = answer.answer(method, args);
+            if (result == null) throw new UnsupportedOperationException(method.getName());
+            return result;
+        });
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(name);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void invoke(Object target, String name) {
+        try {
+            Method m = target.getClass().getDeclaredMethod(name);
+            m.setAccessible(true);
+            m.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.taskmanager.bench;
+
+import com.taskmanager.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = Fixtures.jwtUtils();
+        token = jwtUtils.generateJwtToken("user1@example.com", 1L, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken("user1@example.com", 1L, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims parseVerifiedClaims() {
+        return jwtUtils.parseVerifiedClaims(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.taskmanager.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.taskmanager.dto.TaskView;
+import com.taskmanager.dto.UserWithTasksDto;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the response bodies, with an ObjectMapper set up the way Spring Boot does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Task> tasks;
+    private List<TaskView> views;
+    private List<UserWithTasksDto> usersWithTasks;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) users.add(Fixtures.user(id, "ROLE_USER"));
+        tasks = Fixtures.tasks(size, users);
+        views = tasks.stream().map(TaskView::of).toList();
+        usersWithTasks = users.stream().map(u -> new UserWithTasksDto(u.getId(), u.getFullName(), u.getEmail(),
+                u.getRoles(),
+                views.stream().filter(t -> t.assigneeId().equals(u.getId())).toList(),
+                views.stream().filter(t -> t.creatorId().equals(u.getId())).toList())).toList();
+    }
+
+    @Benchmark
+    public byte[] taskEntities() throws Exception {
+        return mapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] taskViews() throws Exception {
+        return mapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] usersWithTasks() throws Exception {
+        return mapper.writeValueAsBytes(usersWithTasks);
+    }
+}
@@ -112,7 +112,7 @@ function Tasks({ user }) {
     if (!user || !user.roles) return false; 
     if (user.roles.includes('ROLE_ADMIN') || user.roles.includes('ROLE_SUPERADMIN')) return false;
     // User can update if they are assignee or creator
-    return (t.assignee && t.assignee.id === user.id) || (t.creator && t.creator.id === user.id);
+    return t.assigneeId === user.id || t.creatorId === user.id;
   };
 
   const handleStatusChange = async (taskId, newStatus) => {